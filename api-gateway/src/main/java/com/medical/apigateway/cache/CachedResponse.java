@@ -0,0 +1,12 @@
+package com.medical.apigateway.cache;
+
+import org.springframework.http.MediaType;
+
+// Réponse 200 conservée par la gateway
+public record CachedResponse(byte[] body, MediaType contentType, String etag, long expiresAtNanos) {
+
+    // Poids approximatif en mémoire (corps + en-têtes + objet)
+    public int weight() {
+        return body.length + etag.length() + 128;
+    }
+}
@@ -0,0 +1,30 @@
+package com.medical.apigateway.cache;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mise en cache des GET d'une route : chemins concernés et durée de vie.
+ * Toute requête modifiante (POST, PUT, PATCH, DELETE) sur la route vide la région entière.
+ *
+ * @param region   nom de la région (préfixe des clés, unité d'invalidation)
+ * @param ttl      durée de vie d'une réponse en cache
+ * @param patterns chemins dont les GET sont mis en cache (ex. /api/doctors/{id:[0-9]+})
+ */
+public record ResponseCachePolicy(String region, Duration ttl, List<PathPattern> patterns) {
+
+    public static ResponseCachePolicy of(String region, Duration ttl, String... patterns) {
+        return new ResponseCachePolicy(region, ttl, Arrays.stream(patterns)
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList());
+    }
+
+    public boolean isCacheable(PathContainer path) {
+        return patterns.stream().anyMatch(pattern -> pattern.matches(path));
+    }
+}
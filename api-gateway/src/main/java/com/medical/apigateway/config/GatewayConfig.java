@@ -1,31 +1,81 @@
 package com.medical.apigateway.config;
 
+import com.medical.apigateway.cache.ResponseCachePolicy;
+import com.medical.apigateway.filter.BulkheadFilter;
 import com.medical.apigateway.filter.JwtAuthenticationFilter;
 import com.medical.apigateway.filter.LoggingFilter;
+import com.medical.apigateway.filter.PatientOverviewFilter;
 import com.medical.apigateway.filter.RateLimitingFilter;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cloud.gateway.filter.GatewayFilter;
+import com.medical.apigateway.filter.RequestCoalescingFilter;
+import com.medical.apigateway.filter.ResponseCacheFilter;
+import com.medical.apigateway.filter.RetryBudgetFilter;
+import com.medical.apigateway.ratelimit.RateLimitPolicy;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+
 @Configuration
 public class GatewayConfig  {
 
+    // Limites par route : par utilisateur (sujet JWT, sinon IP) et plafond global pour la vue agrégée
+    private static final RateLimitPolicy PATIENTS_PER_USER =
+            RateLimitPolicy.perUser("patients-user", 100, Duration.ofMinutes(1));
+    private static final RateLimitPolicy APPOINTMENTS_PER_USER =
+            RateLimitPolicy.perUser("appointments-user", 100, Duration.ofMinutes(1));
+    private static final RateLimitPolicy OVERVIEW_PER_USER =
+            RateLimitPolicy.perUser("overview-user", 60, Duration.ofMinutes(1));
+    // Chaque vue déclenche 3 appels internes : plafond commun pour protéger les services
+    private static final RateLimitPolicy OVERVIEW_PER_ROUTE =
+            RateLimitPolicy.perRoute("overview-route", 3000, Duration.ofMinutes(1));
+
+    // Données de référence médecins : liste, par spécialité et par ID (pas les disponibilités)
+    private static final ResponseCachePolicy DOCTORS_CACHE = ResponseCachePolicy.of("doctors", Duration.ofMinutes(5),
+            "/api/doctors", "/api/doctors/{id:[0-9]+}", "/api/doctors/specialization/{specialization}");
+
+    // GET identiques simultanés regroupés ; au-delà de ce délai, chaque requête part seule
+    private static final Duration COALESCING_MAX_WAIT = Duration.ofSeconds(2);
+
     private final LoggingFilter loggingFilter;
     private final RateLimitingFilter rateLimitingFilter;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final PatientOverviewFilter patientOverviewFilter;
+    private final ResponseCacheFilter responseCacheFilter;
+    private final BulkheadFilter bulkheadFilter;
+    private final RetryBudgetFilter retryBudgetFilter;
+    private final RequestCoalescingFilter requestCoalescingFilter;
+    private final Environment environment;
 
     public GatewayConfig(
             LoggingFilter loggingFilter,
             RateLimitingFilter rateLimitingFilter,
-            JwtAuthenticationFilter jwtAuthenticationFilter
+            JwtAuthenticationFilter jwtAuthenticationFilter,
+            PatientOverviewFilter patientOverviewFilter,
+            ResponseCacheFilter responseCacheFilter,
+            BulkheadFilter bulkheadFilter,
+            RetryBudgetFilter retryBudgetFilter,
+            RequestCoalescingFilter requestCoalescingFilter,
+            Environment environment
     ) {
         this.loggingFilter = loggingFilter;
         this.rateLimitingFilter = rateLimitingFilter;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.patientOverviewFilter = patientOverviewFilter;
+        this.responseCacheFilter = responseCacheFilter;
+        this.bulkheadFilter = bulkheadFilter;
+        this.retryBudgetFilter = retryBudgetFilter;
+        this.requestCoalescingFilter = requestCoalescingFilter;
+        this.environment = environment;
     }
 
     @Bean
@@ -33,25 +83,74 @@ public class GatewayConfig  {
 
         return builder.routes()
 
+                // Vue agrégée patient (avant la route générique /api/patients/**)
+                .route("patient-overview", r -> r
+                        .order(-1)
+                        .path("/api/patients/{id}/overview")
+                        .and().method(HttpMethod.GET)
+                        .filters(f -> f
+                                .filter(loggingFilter)
+                                .filter(jwtAuthenticationFilter)
+                                .filter(rateLimitingFilter.with(OVERVIEW_PER_USER))
+                                .filter(rateLimitingFilter.with(OVERVIEW_PER_ROUTE))
+                                .filter(patientOverviewFilter)
+                        )
+                        .uri("no://op")
+                )
+
+                // Endpoints internes de ms-patients (exports complets, vérification d'existence en lot) :
+                // appelés directement par les services, jamais exposés aux clients de la gateway
+                .route("ms-patients-internal", r -> r
+                        .order(-1)
+                        .path("/api/patients/export", "/api/patients/exists", "/api/dossiers/export")
+                        .filters(f -> f
+                                .filter(loggingFilter)
+                                .setStatus(HttpStatus.NOT_FOUND))
+                        .uri("no://op")
+                )
 
                 .route("ms-patients", r -> r
                         .path("/api/patients/**", "/api/dossiers/**", "/api/health")
-                        .filters(f -> f
+                        .filters(f -> resilience(f
                                 .filter( loggingFilter)
-                                .filter(rateLimitingFilter)
                                 .filter(jwtAuthenticationFilter)
+                                .filter(rateLimitingFilter.with(PATIENTS_PER_USER)), "ms-patients")
                         )
+                        .metadata(RESPONSE_TIMEOUT_ATTR, responseTimeout("ms-patients").toMillis())
+                        .metadata(CONNECT_TIMEOUT_ATTR, (int) connectTimeout("ms-patients").toMillis())
                         .uri("lb://ms-patients")
                 )
 
 
+                // Médecins : réponses GET mises en cache par la gateway, GET simultanés regroupés
+                .route("doctors", r -> r
+                        .path("/api/doctors/**")
+                        .filters(f -> resilience(f
+                                .filter(loggingFilter)
+                                .filter(jwtAuthenticationFilter)
+                                .filter(rateLimitingFilter.with(APPOINTMENTS_PER_USER))
+                                .filter(responseCacheFilter.lookup(DOCTORS_CACHE))
+                                .filter(responseCacheFilter.capture(DOCTORS_CACHE))
+                                .filter(requestCoalescingFilter.join(COALESCING_MAX_WAIT))
+                                .filter(requestCoalescingFilter.share()), "appointments-service")
+                        )
+                        .metadata(RESPONSE_TIMEOUT_ATTR, responseTimeout("appointments-service").toMillis())
+                        .metadata(CONNECT_TIMEOUT_ATTR, (int) connectTimeout("appointments-service").toMillis())
+                        .uri("lb://appointments-service")
+                )
+
+                // Plannings très consultés (/api/appointments/doctor/{id}) : GET simultanés regroupés
                 .route("appointments-service", r -> r
-                        .path("/api/appointments/**", "/api/doctors/**")
-                        .filters(f -> f
+                        .path("/api/appointments/**")
+                        .filters(f -> resilience(f
                                 .filter( loggingFilter)
-                                .filter(rateLimitingFilter)
                                 .filter( jwtAuthenticationFilter)
+                                .filter(rateLimitingFilter.with(APPOINTMENTS_PER_USER))
+                                .filter(requestCoalescingFilter.join(COALESCING_MAX_WAIT))
+                                .filter(requestCoalescingFilter.share()), "appointments-service")
                         )
+                        .metadata(RESPONSE_TIMEOUT_ATTR, responseTimeout("appointments-service").toMillis())
+                        .metadata(CONNECT_TIMEOUT_ATTR, (int) connectTimeout("appointments-service").toMillis())
                         .uri("lb://appointments-service")
                 )
 
@@ -64,4 +163,35 @@ public class GatewayConfig  {
 
                 .build();
     }
+
+    // Protection d'un service : cloisonnement, circuit breaker (réponse de repli immédiate),
+    // retry des seules méthodes idempotentes, dans la limite du budget global de retries
+    private GatewayFilterSpec resilience(GatewayFilterSpec f, String service) {
+        String prefix = "gateway.resilience." + service + ".";
+        return f
+                .filter(bulkheadFilter.with(service, environment.getProperty(prefix + "max-concurrent", Integer.class, 200)))
+                .circuitBreaker(c -> c
+                        .setName(service)
+                        .setFallbackUri("forward:/fallback/" + service)
+                        .addStatusCode("BAD_GATEWAY")
+                        .addStatusCode("SERVICE_UNAVAILABLE")
+                        .addStatusCode("GATEWAY_TIMEOUT"))
+                // Pas de retry sur timeout : le service est déjà lent, on ne double pas sa charge
+                .retry(r -> r
+                        .setRetries(environment.getProperty(prefix + "retries", Integer.class, 2))
+                        .setMethods(HttpMethod.GET, HttpMethod.HEAD)
+                        .setSeries()
+                        .setStatuses(HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE)
+                        .setExceptions(IOException.class)
+                        .setBackoff(Duration.ofMillis(50), Duration.ofMillis(500), 2, true))
+                .filter(retryBudgetFilter);
+    }
+
+    private Duration responseTimeout(String service) {
+        return environment.getProperty("gateway.resilience." + service + ".response-timeout", Duration.class, Duration.ofSeconds(5));
+    }
+
+    private Duration connectTimeout(String service) {
+        return environment.getProperty("gateway.resilience." + service + ".connect-timeout", Duration.class, Duration.ofSeconds(1));
+    }
 }
@@ -0,0 +1,13 @@
+package com.medical.apigateway.config;
+
+import com.medical.apigateway.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// Tous les services lb:// (routes et WebClient @LoadBalanced) : choix selon latence et charge observées
+@Configuration
+@ConditionalOnProperty(name = "gateway.load-balancer.strategy", havingValue = "peak-ewma", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
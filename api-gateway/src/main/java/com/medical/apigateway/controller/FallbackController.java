@@ -0,0 +1,34 @@
+package com.medical.apigateway.controller;
+
+import com.medical.apigateway.exception.ErrorResponse;
+import com.medical.apigateway.exception.ErrorResponseWriter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+// Réponse immédiate quand le circuit d'un service est ouvert ou que l'appel a échoué
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    @RequestMapping("/{service}")
+    public ResponseEntity<ErrorResponse> fallback(@PathVariable String service, ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        HttpStatus status = cause != null && ErrorResponseWriter.statusOf(cause) == HttpStatus.GATEWAY_TIMEOUT
+                ? HttpStatus.GATEWAY_TIMEOUT
+                : HttpStatus.SERVICE_UNAVAILABLE;
+
+        ErrorResponse body = ErrorResponse.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(service + " is temporarily unavailable")
+                .path(exchange.getRequest().getPath().value())
+                .timestamp(System.currentTimeMillis())
+                .build();
+        return ResponseEntity.status(status).body(body);
+    }
+}
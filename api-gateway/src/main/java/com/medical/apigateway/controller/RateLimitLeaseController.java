@@ -0,0 +1,35 @@
+package com.medical.apigateway.controller;
+
+import com.medical.apigateway.ratelimit.InMemoryRateLimitBackend;
+import com.medical.apigateway.ratelimit.LeaseRequest;
+import com.medical.apigateway.ratelimit.PeerRateLimitBackend;
+import com.medical.apigateway.ratelimit.TokenLease;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Endpoint interne (non routé) : jetons servis par l'instance propriétaire d'une clé
+@RestController
+@RequestMapping("/internal/rate-limit")
+@ConditionalOnProperty(name = "gateway.rate-limit.mode", havingValue = "cluster")
+public class RateLimitLeaseController {
+
+    private final InMemoryRateLimitBackend local;
+    private final PeerRateLimitBackend peers;
+
+    public RateLimitLeaseController(InMemoryRateLimitBackend local, PeerRateLimitBackend peers) {
+        this.local = local;
+        this.peers = peers;
+    }
+
+    @PostMapping("/lease")
+    public ResponseEntity<TokenLease> lease(
+            @RequestHeader(name = PeerRateLimitBackend.SECRET_HEADER, required = false) String secret,
+            @RequestBody LeaseRequest request) {
+        if (!peers.isPeerSecret(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(local.acquireNow(request.toPolicy(), request.key(), request.tokens()));
+    }
+}
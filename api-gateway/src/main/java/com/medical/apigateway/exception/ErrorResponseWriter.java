@@ -0,0 +1,109 @@
+package com.medical.apigateway.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.jsonwebtoken.JwtException;
+import org.springframework.cloud.gateway.support.TimeoutException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Écriture des réponses d'erreur de la gateway, sans allocation superflue :
+ * un ObjectWriter partagé, sérialisation directe dans un buffer du pool Netty,
+ * et corps pré-encodés pour les erreurs fixes (JWT).
+ */
+@Component
+public class ErrorResponseWriter {
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final ObjectWriter writer;
+
+    public ErrorResponseWriter(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(ErrorResponse.class);
+    }
+
+    // Corps d'erreur fixe, encodé une fois au démarrage
+    public record PreEncodedError(HttpStatus status, byte[] body) {
+    }
+
+    public static PreEncodedError preEncode(HttpStatus status, String message) {
+        String json = "{\"error\": \"" + message + "\", \"status\": " + status.value() + "}";
+        return new PreEncodedError(status, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Mono<Void> write(ServerWebExchange exchange, PreEncodedError error) {
+        ServerHttpResponse response = exchange.getResponse();
+        prepare(response, error.status());
+        response.getHeaders().setContentLength(error.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(error.body())));
+    }
+
+    public Mono<Void> write(ServerWebExchange exchange, Throwable ex) {
+        return write(exchange, statusOf(ex), ex.getMessage() != null ? ex.getMessage() : "Unexpected error");
+    }
+
+    public Mono<Void> write(ServerWebExchange exchange, HttpStatus status, String message) {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(exchange.getRequest().getPath().value())
+                .timestamp(System.currentTimeMillis())
+                .build();
+
+        ServerHttpResponse response = exchange.getResponse();
+        prepare(response, status);
+
+        DataBuffer buffer = response.bufferFactory().allocateBuffer(INITIAL_BUFFER_SIZE);
+        try (OutputStream out = buffer.asOutputStream()) {
+            writer.writeValue(out, errorResponse);
+        } catch (Exception e) {
+            DataBufferUtils.release(buffer);
+            return Mono.error(e);
+        }
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    // Statut déduit du type de l'exception (et non de son message)
+    public static HttpStatus statusOf(Throwable ex) {
+        if (ex instanceof ResponseStatusException statusException) {
+            HttpStatus status = HttpStatus.resolve(statusException.getStatusCode().value());
+            return status != null ? status : HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        if (ex instanceof JwtException) {
+            return HttpStatus.UNAUTHORIZED;
+        }
+        if (ex instanceof TimeoutException || ex instanceof java.util.concurrent.TimeoutException
+                || ex instanceof io.netty.handler.timeout.TimeoutException) {
+            return HttpStatus.GATEWAY_TIMEOUT;
+        }
+        if (ex instanceof ConnectException || ex instanceof UnknownHostException) {
+            return HttpStatus.BAD_GATEWAY;
+        }
+        if (ex.getCause() != null && ex.getCause() != ex) {
+            HttpStatus causeStatus = statusOf(ex.getCause());
+            if (causeStatus != HttpStatus.INTERNAL_SERVER_ERROR) {
+                return causeStatus;
+            }
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private static void prepare(ServerHttpResponse response, HttpStatus status) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    }
+}
@@ -0,0 +1,40 @@
+package com.medical.apigateway.filter;
+
+import com.medical.apigateway.exception.ErrorResponseWriter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Cloisonnement : nombre maximal de requêtes en cours vers un service. Au-delà, réponse 503
+ * immédiate, sans attendre : un service lent ne peut pas accaparer toutes les connexions.
+ */
+@Component
+public class BulkheadFilter {
+
+    private static final ErrorResponseWriter.PreEncodedError FULL = ErrorResponseWriter.preEncode(
+            HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent requests");
+
+    private final ErrorResponseWriter errorResponseWriter;
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadFilter(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
+    // Les routes d'un même service partagent le même cloisonnement (même nom)
+    public GatewayFilter with(String name, int maxConcurrent) {
+        Semaphore permits = bulkheads.computeIfAbsent(name, n -> new Semaphore(maxConcurrent));
+        return (exchange, chain) -> {
+            if (!permits.tryAcquire()) {
+                return errorResponseWriter.write(exchange, FULL);
+            }
+            return chain.filter(exchange)
+                    .doFinally(signal -> permits.release());
+        };
+    }
+}
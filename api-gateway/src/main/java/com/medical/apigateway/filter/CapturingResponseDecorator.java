@@ -0,0 +1,65 @@
+package com.medical.apigateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Predicate;
+
+/**
+ * Réponse dont le corps est lu entièrement avant d'être écrit, pour le mettre en cache ou le partager.
+ * Le gestionnaire reçoit le corps et décide de ce qui est renvoyé au client (writeBody, 304...).
+ * Les filtres qui l'installent doivent passer avant NettyWriteResponseFilter, donc avant les
+ * filtres de route (JWT...) : la condition, évaluée au moment de l'écriture, laisse passer
+ * sans copie les réponses qui ne sont pas à capturer (401, réponse servie depuis le cache...).
+ */
+public class CapturingResponseDecorator extends ServerHttpResponseDecorator {
+
+    @FunctionalInterface
+    public interface BodyHandler {
+        Mono<Void> handle(CapturingResponseDecorator response, byte[] body);
+    }
+
+    private final Predicate<ServerHttpResponse> condition;
+    private final BodyHandler handler;
+
+    public CapturingResponseDecorator(ServerHttpResponse delegate, Predicate<ServerHttpResponse> condition,
+                                      BodyHandler handler) {
+        super(delegate);
+        this.condition = condition;
+        this.handler = handler;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (!condition.test(this)) {
+            return super.writeWith(body);
+        }
+        return DataBufferUtils.join(Flux.from(body))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(bytes -> handler.handle(this, bytes));
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return writeWith(Flux.from(body).flatMapSequential(publisher -> publisher));
+    }
+
+    // Écrit le corps tel quel au client
+    public Mono<Void> writeBody(byte[] body) {
+        getDelegate().getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        getDelegate().getHeaders().setContentLength(body.length);
+        return getDelegate().writeWith(Mono.just(getDelegate().bufferFactory().wrap(body)));
+    }
+}
@@ -1,7 +1,17 @@
 package com.medical.apigateway.filter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.medical.apigateway.exception.ErrorResponseWriter;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -13,10 +23,35 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
-public class JwtAuthenticationFilter implements GatewayFilter {
+public class JwtAuthenticationFilter implements GatewayFilter, MeterBinder {
+
+    // Sujet du token validé, lu par le rate limiting par utilisateur
+    public static final String SUBJECT_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".subject";
+
+    // Identité transmise aux services (ils n'ont pas à relire le token)
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+
+    // Seuls chemins accessibles sans token
+    private static final Set<String> HEALTH_PATHS = Set.of("/api/health", "/gateway/health");
+
+    private static final ErrorResponseWriter.PreEncodedError MISSING_TOKEN = ErrorResponseWriter.preEncode(
+            HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
+    private static final ErrorResponseWriter.PreEncodedError INVALID_TOKEN = ErrorResponseWriter.preEncode(
+            HttpStatus.UNAUTHORIZED, "Invalid JWT token");
+
+    private final ErrorResponseWriter errorResponseWriter;
 
     @Value("${jwt.secret:my-secret-key-change-in-production}")
     private String jwtSecret;
@@ -24,19 +59,74 @@ public class JwtAuthenticationFilter implements GatewayFilter {
     @Value("${jwt.enabled:false}")
     private boolean jwtEnabled;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${jwt.cache.max-ttl-seconds:600}")
+    private long cacheMaxTtlSeconds;
+
+    // Parser immuable et thread-safe, construit une seule fois
+    private JwtParser parser;
+
+    // Tokens déjà vérifiés (clé : SHA-256 du token), jusqu'à leur expiration
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtAuthenticationFilter(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!jwtEnabled) {
+            return;
+        }
+        parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        return ttlNanos(token);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return ttlNanos(token);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (verifiedTokens != null) {
+            CaffeineCacheMetrics.monitor(registry, verifiedTokens, "gateway.jwt.verified-tokens");
+        }
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 
-        // 1️⃣ Bypass health endpoints
-        String path = exchange.getRequest().getPath().toString();
-        if (path.contains("/api/health") || path.contains("/gateway/health")) {
-            return chain.filter(exchange);
+        // 1️⃣ Bypass health endpoints (chemin exact), sans identité fournie par le client
+        String path = exchange.getRequest().getPath().value();
+        if (HEALTH_PATHS.contains(path)) {
+            return chain.filter(withIdentity(exchange, null));
         }
 
-        // 2️⃣ JWT désactivé
+        // 2️⃣ JWT désactivé : on ne laisse pas passer d'identité fournie par le client
         if (!jwtEnabled) {
             log.debug("JWT validation disabled");
-            return chain.filter(exchange);
+            return chain.filter(withIdentity(exchange, null));
         }
 
         // 3️⃣ Lire Authorization header
@@ -46,57 +136,79 @@ public class JwtAuthenticationFilter implements GatewayFilter {
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             log.warn("Missing or invalid Authorization header");
-            return onError(exchange,
-                    "Missing or invalid Authorization header",
-                    HttpStatus.UNAUTHORIZED);
+            return errorResponseWriter.write(exchange, MISSING_TOKEN);
         }
 
         try {
-            // 4️⃣ Valider le token
+            // 4️⃣ Valider le token (vérification HMAC seulement au premier passage)
             String token = authHeader.substring(7);
-            validateToken(token);
+            VerifiedToken verified = verifiedTokens.get(sha256(token), k -> validateToken(token));
+            if (verified.subject() != null) {
+                exchange.getAttributes().put(SUBJECT_ATTRIBUTE, verified.subject());
+            }
 
-            log.info("JWT token validated successfully");
-            return chain.filter(exchange);
+            log.debug("JWT token validated successfully");
+            return chain.filter(withIdentity(exchange, verified));
 
         } catch (Exception e) {
             log.error("JWT validation failed: {}", e.getMessage());
-            return onError(exchange, "Invalid JWT token",
-                    HttpStatus.UNAUTHORIZED);
+            return errorResponseWriter.write(exchange, INVALID_TOKEN);
         }
     }
 
-    private void validateToken(String token) {
-        Jwts.parser()
-                .verifyWith(
-                        Keys.hmacShaKeyFor(
-                                jwtSecret.getBytes(StandardCharsets.UTF_8)
-                        )
-                )
-                .build()
-                .parseSignedClaims(token);
+    private VerifiedToken validateToken(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(
+                claims.getSubject(),
+                roles(claims),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE
+        );
     }
 
-    private Mono<Void> onError(ServerWebExchange exchange,
-                               String message,
-                               HttpStatus status) {
+    // En-têtes d'identité : toujours retirés de la requête entrante, posés seulement après validation
+    private static ServerWebExchange withIdentity(ServerWebExchange exchange, VerifiedToken verified) {
+        return exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USER_ROLES_HEADER);
+                    if (verified != null && verified.subject() != null) {
+                        headers.set(USER_ID_HEADER, verified.subject());
+                    }
+                    if (verified != null && !verified.roles().isEmpty()) {
+                        headers.set(USER_ROLES_HEADER, verified.roles());
+                    }
+                }))
+                .build();
+    }
 
-        exchange.getResponse().setStatusCode(status);
-        exchange.getResponse()
-                .getHeaders()
-                .add("Content-Type", "application/json");
+    // Claim "roles" (liste) ou "role" (chaîne), transmis séparés par des virgules
+    private static String roles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (roles == null) {
+            roles = claims.get("role");
+        }
+        if (roles instanceof Collection<?> collection) {
+            return collection.stream().map(String::valueOf).collect(Collectors.joining(","));
+        }
+        return roles != null ? roles.toString() : "";
+    }
 
-        String errorJson = String.format(
-                "{\"error\": \"%s\", \"status\": %d}",
-                message,
-                status.value()
-        );
+    private long ttlNanos(VerifiedToken token) {
+        long remainingMillis = token.expiresAtMillis() - System.currentTimeMillis();
+        long ttlMillis = Math.min(remainingMillis, TimeUnit.SECONDS.toMillis(cacheMaxTtlSeconds));
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-        return exchange.getResponse()
-                .writeWith(Mono.just(
-                        exchange.getResponse()
-                                .bufferFactory()
-                                .wrap(errorJson.getBytes())
-                ));
+    private record VerifiedToken(String subject, String roles, long expiresAtMillis) {
     }
 }
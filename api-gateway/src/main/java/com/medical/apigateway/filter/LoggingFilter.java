@@ -1,31 +1,84 @@
 package com.medical.apigateway.filter;
 
-import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access log : une ligne clé=valeur par requête, écrite sur le logger "access"
+ * (appender asynchrone borné, voir logback-spring.xml : rien ne bloque l'event loop).
+ * Les réponses 2xx/3xx sont échantillonnées ; les erreurs sont toujours journalisées.
+ */
 @Component
-@Slf4j
 public class LoggingFilter implements GatewayFilter {
 
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("access");
+
+    private static final Set<String> REDACTED_HEADERS = Set.of(
+            "authorization", "proxy-authorization", "cookie", "set-cookie", "x-rate-limit-secret");
+
+    @Value("${gateway.access-log.success-sample-rate:1.0}")
+    private double successSampleRate;
+
+    // En-têtes à journaliser (aucun par défaut) ; les en-têtes sensibles sont masqués
+    @Value("${gateway.access-log.headers:}")
+    private List<String> loggedHeaders;
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> log(exchange, start));
+    }
 
-        log.info("=== GATEWAY REQUEST ===");
-        log.info("Request ID: {}", exchange.getRequest().getId());
-        log.info("Method: {} {}",
-                exchange.getRequest().getMethod(),
-                exchange.getRequest().getPath());
-        log.info("Headers: {}", exchange.getRequest().getHeaders());
+    private void log(ServerWebExchange exchange, long start) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        boolean success = status == null || status.is2xxSuccessful() || status.is3xxRedirection();
+        if (!ACCESS_LOG.isInfoEnabled()
+                || (success && successSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= successSampleRate)) {
+            return;
+        }
 
-        return chain.filter(exchange)
-                .doOnSuccess(aVoid -> {
-                    log.info("=== GATEWAY RESPONSE ===");
-                    log.info("Response Status: {}",
-                            exchange.getResponse().getStatusCode());
-                });
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Long upstreamNanos = exchange.getAttribute(UpstreamTimingFilter.UPSTREAM_NANOS_ATTRIBUTE);
+
+        StringBuilder line = new StringBuilder(160)
+                .append("method=").append(exchange.getRequest().getMethod())
+                .append(" path=").append(exchange.getRequest().getPath().value())
+                .append(" route=").append(route != null ? route.getId() : "-")
+                .append(" status=").append(status != null ? status.value() : 0)
+                .append(" latency_ms=").append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .append(" upstream_ms=").append(upstreamNanos != null ? TimeUnit.NANOSECONDS.toMillis(upstreamNanos) : -1)
+                .append(" request_id=").append(exchange.getRequest().getId());
+        appendHeaders(line, exchange.getRequest().getHeaders());
+
+        ACCESS_LOG.info(line.toString());
+    }
+
+    private void appendHeaders(StringBuilder line, HttpHeaders headers) {
+        for (String name : loggedHeaders) {
+            String value = headers.getFirst(name);
+            if (value == null) {
+                continue;
+            }
+            line.append(' ').append(name.toLowerCase(Locale.ROOT)).append("=\"")
+                    .append(REDACTED_HEADERS.contains(name.toLowerCase(Locale.ROOT)) ? "***" : value.replace('"', '\''))
+                    .append('"');
+        }
     }
 }
@@ -0,0 +1,159 @@
+package com.medical.apigateway.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medical.apigateway.exception.ErrorResponseWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Vue patient 360 : GET /api/patients/{id}/overview.
+ * <p>
+ * Interroge en parallèle ms-patients (patient, derniers dossiers) et appointments-service (RDV),
+ * chaque appel avec son propre délai. La latence est celle de l'appel le plus lent, pas la somme ;
+ * un appel en échec ou trop lent est signalé dans "errors" et la réponse est marquée "partial".
+ */
+@Component
+@Slf4j
+public class PatientOverviewFilter implements GatewayFilter {
+
+    private static final String PATIENT = "patient";
+    private static final String LAST_DOSSIERS = "lastDossiers";
+    private static final String APPOINTMENTS = "appointments";
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final Duration patientTimeout;
+    private final Duration dossiersTimeout;
+    private final Duration appointmentsTimeout;
+    private final int lastDossiersLimit;
+
+    public PatientOverviewFilter(
+            @LoadBalanced WebClient.Builder webClientBuilder,
+            ObjectMapper objectMapper,
+            ErrorResponseWriter errorResponseWriter,
+            @Value("${gateway.overview.patient-timeout-ms:1000}") long patientTimeoutMs,
+            @Value("${gateway.overview.dossiers-timeout-ms:1000}") long dossiersTimeoutMs,
+            @Value("${gateway.overview.appointments-timeout-ms:1000}") long appointmentsTimeoutMs,
+            @Value("${gateway.overview.last-dossiers:5}") int lastDossiersLimit
+    ) {
+        this.webClient = webClientBuilder.build();
+        this.objectMapper = objectMapper;
+        this.errorResponseWriter = errorResponseWriter;
+        this.patientTimeout = Duration.ofMillis(patientTimeoutMs);
+        this.dossiersTimeout = Duration.ofMillis(dossiersTimeoutMs);
+        this.appointmentsTimeout = Duration.ofMillis(appointmentsTimeoutMs);
+        this.lastDossiersLimit = lastDossiersLimit;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String id = ServerWebExchangeUtils.getUriTemplateVariables(exchange).get("id");
+        if (id == null || id.isEmpty() || !id.chars().allMatch(Character::isDigit)) {
+            return errorResponseWriter.write(exchange, HttpStatus.BAD_REQUEST, "Invalid patient id");
+        }
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        Mono<Leg> patient = fetch(PATIENT,
+                "http://ms-patients/api/patients/" + id, authorization, patientTimeout);
+        Mono<Leg> lastDossiers = fetch(LAST_DOSSIERS,
+                "http://ms-patients/api/dossiers/patient/" + id + "/last?limit=" + lastDossiersLimit,
+                authorization, dossiersTimeout);
+        Mono<Leg> appointments = fetch(APPOINTMENTS,
+                "http://appointments-service/api/appointments/patient/" + id, authorization, appointmentsTimeout);
+
+        return Mono.zip(patient, lastDossiers, appointments)
+                .flatMap(legs -> {
+                    if (legs.getT1().status() == HttpStatus.NOT_FOUND) {
+                        return errorResponseWriter.write(exchange, HttpStatus.NOT_FOUND, "Patient not found: " + id);
+                    }
+                    return writeOverview(exchange, Long.parseLong(id), legs.getT1(), legs.getT2(), legs.getT3());
+                });
+    }
+
+    private Mono<Leg> fetch(String name, String uri, String authorization, Duration timeout) {
+        return webClient.get()
+                .uri(uri)
+                .headers(headers -> {
+                    if (authorization != null) {
+                        headers.set(HttpHeaders.AUTHORIZATION, authorization);
+                    }
+                })
+                .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                        ? response.bodyToMono(JsonNode.class)
+                                .map(body -> Leg.ok(name, body))
+                                .defaultIfEmpty(Leg.ok(name, NullNode.getInstance()))
+                        : response.releaseBody()
+                                .thenReturn(Leg.failed(name, response.statusCode(),
+                                        "HTTP " + response.statusCode().value())))
+                .timeout(timeout)
+                .onErrorResume(TimeoutException.class, e -> {
+                    log.warn("Overview: {} timed out after {} ms", name, timeout.toMillis());
+                    return Mono.just(Leg.failed(name, HttpStatus.GATEWAY_TIMEOUT, "timeout"));
+                })
+                .onErrorResume(e -> {
+                    log.warn("Overview: {} failed: {}", name, e.getMessage());
+                    return Mono.just(Leg.failed(name, HttpStatus.BAD_GATEWAY, "unavailable"));
+                });
+    }
+
+    private Mono<Void> writeOverview(ServerWebExchange exchange, long patientId,
+                                     Leg patient, Leg lastDossiers, Leg appointments) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("patientId", patientId);
+        // ms-patients enveloppe ses réponses dans ApiResponse : on ne garde que "data"
+        root.set(PATIENT, patient.body() != null ? patient.body().path("data") : NullNode.getInstance());
+        root.set(LAST_DOSSIERS, lastDossiers.body() != null ? lastDossiers.body().path("data") : NullNode.getInstance());
+        root.set(APPOINTMENTS, appointments.body() != null ? appointments.body() : NullNode.getInstance());
+
+        ObjectNode errors = root.putObject("errors");
+        for (Leg leg : new Leg[]{patient, lastDossiers, appointments}) {
+            if (leg.error() != null) {
+                errors.put(leg.name(), leg.error());
+            }
+        }
+        root.put("partial", !errors.isEmpty());
+
+        try {
+            return write(exchange, HttpStatus.OK, objectMapper.writeValueAsBytes(root));
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, HttpStatus status, byte[] bytes) {
+        exchange.getResponse().setStatusCode(status);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return exchange.getResponse()
+                .writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+    }
+
+    private record Leg(String name, HttpStatusCode status, JsonNode body, String error) {
+
+        static Leg ok(String name, JsonNode body) {
+            return new Leg(name, HttpStatus.OK, body, null);
+        }
+
+        static Leg failed(String name, HttpStatusCode status, String error) {
+            return new Leg(name, status, null, error);
+        }
+    }
+}
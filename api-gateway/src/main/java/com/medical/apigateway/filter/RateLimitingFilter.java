@@ -1,49 +1,69 @@
 package com.medical.apigateway.filter;
 
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bandwidth;
+import com.medical.apigateway.ratelimit.RateLimitPolicy;
+import com.medical.apigateway.ratelimit.TokenLeases;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
-import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
-import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Fabrique des filtres de rate limiting ; chaque route déclare sa politique dans GatewayConfig.
+ * Pour une limite par utilisateur, le filtre doit être placé après JwtAuthenticationFilter.
+ */
 @Component
-public class RateLimitingFilter implements GatewayFilter {
+public class RateLimitingFilter {
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    private static final String UNKNOWN = "unknown";
 
-    @Override
-    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    private final TokenLeases tokenLeases;
 
-        String key = exchange.getRequest()
-                .getRemoteAddress()
-                .getAddress()
-                .getHostAddress();
-
-        Bucket bucket = cache.computeIfAbsent(key, k -> createBucket());
+    public RateLimitingFilter(TokenLeases tokenLeases) {
+        this.tokenLeases = tokenLeases;
+    }
 
-        if (bucket.tryConsume(1)) {
-            return chain.filter(exchange);
-        }
+    public GatewayFilter with(RateLimitPolicy policy) {
+        return (exchange, chain) -> tokenLeases.tryConsume(policy, key(policy, exchange))
+                .flatMap(lease -> {
+                    if (lease.isGranted()) {
+                        exchange.getResponse().getHeaders()
+                                .set("X-RateLimit-Remaining", Long.toString(lease.remaining()));
+                        return chain.filter(exchange);
+                    }
 
-        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
-        return exchange.getResponse().setComplete();
+                    long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(lease.nanosToWaitForRefill()));
+                    exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    exchange.getResponse().getHeaders().set("Retry-After", Long.toString(retryAfterSeconds));
+                    return exchange.getResponse().setComplete();
+                });
     }
 
-    private Bucket createBucket() {
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(100)                      // 100 requêtes
-                .refillGreedy(100, Duration.ofMinutes(1)) // par minute
-                .build();
+    private static String key(RateLimitPolicy policy, ServerWebExchange exchange) {
+        switch (policy.key()) {
+            case USER -> {
+                String subject = exchange.getAttribute(JwtAuthenticationFilter.SUBJECT_ATTRIBUTE);
+                return subject != null ? "user:" + subject : "ip:" + clientIp(exchange);
+            }
+            case ROUTE -> {
+                Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                return "route:" + (route != null ? route.getId() : UNKNOWN);
+            }
+            default -> {
+                return "ip:" + clientIp(exchange);
+            }
+        }
+    }
 
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    private static String clientIp(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return UNKNOWN;
+        }
+        return remoteAddress.getAddress().getHostAddress();
     }
 }
@@ -0,0 +1,175 @@
+package com.medical.apigateway.filter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Regroupement des GET identiques simultanés (même chemin, requête, utilisateur et Accept) :
+ * un seul appel au service, dont la réponse est recopiée pour toutes les requêtes en attente.
+ * <p>
+ * Deux filtres par route, comme pour le cache de réponses :
+ * <ul>
+ *   <li>{@link #join} (après JWT et rate limiting) : la première requête part vers le service,
+ *   les suivantes attendent sa réponse au plus "maxWait", puis partent seules ;</li>
+ *   <li>{@link #share} (avant NettyWriteResponseFilter, donc avant tous les filtres de route) :
+ *   installe le décorateur de réponse ; seul le corps d'une réponse 2xx de la première requête
+ *   est lu et transmis aux requêtes en attente. Toute autre réponse (erreur, circuit ouvert...)
+ *   libère les requêtes en attente, qui partent alors seules.</li>
+ * </ul>
+ */
+@Component
+public class RequestCoalescingFilter implements MeterBinder {
+
+    private static final String FLIGHT_ATTRIBUTE = RequestCoalescingFilter.class.getName() + ".flight";
+
+    private final long maxBodyBytes;
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong joined = new AtomicLong();
+
+    public RequestCoalescingFilter(@Value("${gateway.coalescing.max-body-size:1MB}") DataSize maxBodySize) {
+        this.maxBodyBytes = maxBodySize.toBytes();
+    }
+
+    public GatewayFilter join(Duration maxWait) {
+        return (exchange, chain) -> {
+            if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            String key = key(exchange);
+            Flight flight = new Flight(key);
+            Flight leader = inFlight.putIfAbsent(key, flight);
+            if (leader == null) {
+                exchange.getAttributes().put(FLIGHT_ATTRIBUTE, flight);
+                return chain.filter(exchange);
+            }
+
+            joined.incrementAndGet();
+            return leader.result().timeout(maxWait, Mono.empty())
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(shared -> shared.isPresent()
+                            ? write(exchange, shared.get())
+                            : chain.filter(exchange));
+        };
+    }
+
+    public GatewayFilter share() {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            ServerHttpResponse decorated = new CapturingResponseDecorator(exchange.getResponse(),
+                    response -> exchange.getAttribute(FLIGHT_ATTRIBUTE) != null && isSuccess(response.getStatusCode()),
+                    (response, body) -> {
+                        Flight flight = exchange.getAttribute(FLIGHT_ATTRIBUTE);
+                        if (flight != null) {
+                            land(flight, toShared(response, body));
+                        }
+                        return response.writeBody(body);
+                    });
+            // Erreur ou annulation de la première requête : les autres repartent seules
+            return chain.filter(exchange.mutate().response(decorated).build())
+                    .doFinally(signal -> {
+                        Flight flight = exchange.getAttribute(FLIGHT_ATTRIBUTE);
+                        if (flight != null) {
+                            land(flight, null);
+                        }
+                    });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private void land(Flight flight, SharedResponse shared) {
+        inFlight.remove(flight.key(), flight);
+        if (shared != null) {
+            flight.sink().tryEmitValue(shared);
+        } else {
+            flight.sink().tryEmitEmpty();
+        }
+    }
+
+    private SharedResponse toShared(ServerHttpResponse response, byte[] body) {
+        HttpHeaders headers = response.getHeaders();
+        if (!isSuccess(response.getStatusCode())
+                || body.length > maxBodyBytes
+                || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+        HttpHeaders copy = new HttpHeaders();
+        copy.addAll(headers);
+        copy.remove(HttpHeaders.CONTENT_LENGTH);
+        copy.remove(HttpHeaders.TRANSFER_ENCODING);
+        return new SharedResponse(response.getStatusCode(), HttpHeaders.readOnlyHttpHeaders(copy), body);
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, SharedResponse shared) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(shared.status());
+        HttpHeaders headers = response.getHeaders();
+        shared.headers().forEach(headers::put);
+        headers.setContentLength(shared.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.coalescing.in-flight", inFlight, Map::size)
+                .description("Distinct GET requests currently sent upstream with coalescing enabled")
+                .register(registry);
+        FunctionCounter.builder("gateway.coalescing.joined", joined, AtomicLong::get)
+                .description("Requests served from another identical in-flight request")
+                .register(registry);
+    }
+
+    // Erreurs, réponses de repli et redirections ne sont pas partagées : chacun retente seul
+    private static boolean isSuccess(HttpStatusCode status) {
+        return status == null || status.is2xxSuccessful();
+    }
+
+    // Portée : sujet JWT vérifié, à défaut l'en-tête Authorization (jamais partagé entre utilisateurs)
+    private static String key(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        String subject = exchange.getAttribute(JwtAuthenticationFilter.SUBJECT_ATTRIBUTE);
+        String scope = subject != null
+                ? "sub:" + subject
+                : "auth:" + Optional.ofNullable(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION)).orElse("");
+        String query = request.getURI().getRawQuery();
+        return scope + '|' + request.getHeaders().getFirst(HttpHeaders.ACCEPT) + '|'
+                + request.getURI().getRawPath() + (query != null ? '?' + query : "");
+    }
+
+    private record Flight(String key, Sinks.One<SharedResponse> sink) {
+
+        Flight(String key) {
+            this(key, Sinks.one());
+        }
+
+        Mono<SharedResponse> result() {
+            return sink.asMono();
+        }
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+}
@@ -0,0 +1,224 @@
+package com.medical.apigateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.medical.apigateway.cache.CachedResponse;
+import com.medical.apigateway.cache.ResponseCachePolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de réponses GET pour les données de référence (médecins...), borné en octets.
+ * <p>
+ * Deux filtres par route :
+ * <ul>
+ *   <li>{@link #lookup} (après JWT et rate limiting) sert les réponses en cache, gère
+ *   If-None-Match (304) et vide la région sur toute requête modifiante ;</li>
+ *   <li>{@link #capture} (avant NettyWriteResponseFilter, donc avant tous les filtres de route)
+ *   installe le décorateur de réponse ; seules les réponses 200 des requêtes marquées par
+ *   {@link #lookup} (authentifiées, absentes du cache) sont lues, reçoivent un ETag et sont
+ *   stockées. Les autres (401, 429, réponses servies depuis le cache...) passent sans copie.</li>
+ * </ul>
+ * Seules les modifications passant par cette instance invalident le cache : le TTL de la
+ * politique borne la durée pendant laquelle une modification faite ailleurs reste invisible.
+ */
+@Component
+@Slf4j
+public class ResponseCacheFilter implements MeterBinder {
+
+    private static final String PENDING_ATTRIBUTE = ResponseCacheFilter.class.getName() + ".pending";
+
+    private final Cache<String, CachedResponse> responses;
+    private final long maxEntryBytes;
+
+    // Incrémentée à chaque invalidation : une réponse lue avant ne doit pas être stockée après
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public ResponseCacheFilter(
+            @Value("${gateway.response-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${gateway.response-cache.max-entry-size:1MB}") DataSize maxEntrySize
+    ) {
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return Math.max(0, response.expiresAtNanos() - System.nanoTime());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+                                                  long currentDuration) {
+                        return Math.max(0, response.expiresAtNanos() - System.nanoTime());
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public GatewayFilter lookup(ResponseCachePolicy policy) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpMethod method = request.getMethod();
+
+            if (HttpMethod.GET.equals(method)) {
+                if (!policy.isCacheable(request.getPath().pathWithinApplication())) {
+                    return chain.filter(exchange);
+                }
+                String key = key(policy, request);
+                CachedResponse cached = responses.getIfPresent(key);
+                if (cached != null) {
+                    return writeCached(exchange, cached);
+                }
+                exchange.getAttributes().put(PENDING_ATTRIBUTE,
+                        new Pending(policy, key, generation(policy.region()).get()));
+                return chain.filter(exchange);
+            }
+
+            if (HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)) {
+                return chain.filter(exchange);
+            }
+
+            // Requête modifiante : la région est vidée avant et après l'appel
+            invalidate(policy.region());
+            return chain.filter(exchange)
+                    .doFinally(signal -> invalidate(policy.region()));
+        };
+    }
+
+    public GatewayFilter capture(ResponseCachePolicy policy) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            ServerHttpResponse decorated = new CapturingResponseDecorator(exchange.getResponse(),
+                    response -> exchange.getAttribute(PENDING_ATTRIBUTE) != null && isOk(response.getStatusCode()),
+                    (response, body) -> store(exchange, response, body));
+            return chain.filter(exchange.mutate().response(decorated).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> store(ServerWebExchange exchange, CapturingResponseDecorator response, byte[] body) {
+        Pending pending = exchange.getAttribute(PENDING_ATTRIBUTE);
+        HttpStatusCode status = response.getStatusCode();
+        HttpHeaders headers = response.getHeaders();
+        if (pending == null
+                || !isOk(status)
+                || body.length > maxEntryBytes
+                || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return response.writeBody(body);
+        }
+
+        String etag = headers.getETag() != null ? headers.getETag() : etag(body);
+        headers.setETag(etag);
+        headers.set("X-Cache", "MISS");
+        if (generation(pending.policy().region()).get() == pending.generation()) {
+            responses.put(pending.key(), new CachedResponse(body, headers.getContentType(), etag,
+                    System.nanoTime() + pending.policy().ttl().toNanos()));
+        }
+
+        if (matches(exchange.getRequest(), etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+            return response.getDelegate().setComplete();
+        }
+        return response.writeBody(body);
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.set("X-Cache", "HIT");
+
+        if (matches(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            headers.setContentType(cached.contentType());
+        }
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private void invalidate(String region) {
+        generation(region).incrementAndGet();
+        String prefix = region + ':';
+        responses.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        log.debug("Response cache: region {} invalidated", region);
+    }
+
+    private AtomicLong generation(String region) {
+        return generations.computeIfAbsent(region, r -> new AtomicLong());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responses, "gateway.response-cache");
+    }
+
+    private static String key(ResponseCachePolicy policy, ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        return policy.region() + ':' + request.getURI().getRawPath() + (query != null ? '?' + query : "");
+    }
+
+    private static boolean isOk(HttpStatusCode status) {
+        return status == null || status.value() == HttpStatus.OK.value();
+    }
+
+    private static boolean matches(ServerHttpRequest request, String etag) {
+        return request.getHeaders().getIfNoneMatch().stream()
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag)
+                        || candidate.equals("W/" + etag));
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(digest, 16)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Pending(ResponseCachePolicy policy, String key, long generation) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.medical.apigateway.filter;
+
+import com.medical.apigateway.resilience.RetryBudget;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * À placer après le filtre retry : chaque tentative passe ici, les retries doivent
+ * être couverts par le budget global, sinon l'échec est renvoyé sans nouvel appel.
+ */
+@Component
+@Slf4j
+public class RetryBudgetFilter implements GatewayFilter {
+
+    private final RetryBudget retryBudget;
+
+    public RetryBudgetFilter(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Integer iteration = exchange.getAttribute(RetryGatewayFilterFactory.RETRY_ITERATION_KEY);
+        if (iteration == null || iteration == 0) {
+            retryBudget.onRequest();
+        } else if (!retryBudget.tryRetry()) {
+            log.debug("Retry budget exhausted for {}", exchange.getRequest().getPath());
+            // Exception non retentable : le filtre retry s'arrête là
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Retry budget exhausted"));
+        }
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,32 @@
+package com.medical.apigateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mesure le temps passé dans l'appel au service (jusqu'aux en-têtes de réponse) :
+ * s'exécute juste avant NettyRoutingFilter et range la durée dans un attribut de l'échange.
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    public static final String UPSTREAM_NANOS_ATTRIBUTE = UpstreamTimingFilter.class.getName() + ".nanos";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> exchange.getAttributes()
+                        .put(UPSTREAM_NANOS_ATTRIBUTE, System.nanoTime() - start));
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.medical.apigateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Configuration instanciée dans le contexte de chaque service (lb://...) :
+ * volontairement sans @Configuration pour ne pas être prise par le scan de composants.
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+
+    @Bean
+    public PeakEwmaLoadBalancer peakEwmaLoadBalancer(Environment environment,
+                                                     LoadBalancerClientFactory loadBalancerClientFactory) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        PeakEwmaSelector selector = new PeakEwmaSelector(
+                environment.getProperty("gateway.load-balancer.decay", Duration.class, Duration.ofSeconds(10)),
+                environment.getProperty("gateway.load-balancer.ejection.consecutive-failures", Integer.class, 5),
+                environment.getProperty("gateway.load-balancer.ejection.duration", Duration.class, Duration.ofSeconds(30)),
+                environment.getProperty("gateway.load-balancer.ejection.max-fraction", Double.class, 0.5)
+        );
+        return new PeakEwmaLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId,
+                selector
+        );
+    }
+}
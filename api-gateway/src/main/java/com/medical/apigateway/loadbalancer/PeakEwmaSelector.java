@@ -0,0 +1,154 @@
+package com.medical.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * Choix d'instance "peak EWMA" : coût = latence lissée (les pics sont pris immédiatement)
+ * x (requêtes en cours + 1), comparé entre deux instances tirées au hasard (power of two choices).
+ * Une instance en échec répété est écartée temporairement, dans la limite d'une fraction du parc.
+ */
+public class PeakEwmaSelector {
+
+    // Instance sans mesure mais déjà occupée : on attend sa première réponse
+    private static final double UNOBSERVED_PENALTY = Double.MAX_VALUE / 2;
+
+    private final long decayNanos;
+    private final int failuresBeforeEjection;
+    private final long ejectionNanos;
+    private final double maxEjectedFraction;
+    private final LongSupplier clock;
+    private final IntUnaryOperator random;
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public PeakEwmaSelector(Duration decay, int failuresBeforeEjection, Duration ejection, double maxEjectedFraction) {
+        this(decay, failuresBeforeEjection, ejection, maxEjectedFraction,
+                System::nanoTime, bound -> ThreadLocalRandom.current().nextInt(bound));
+    }
+
+    PeakEwmaSelector(Duration decay, int failuresBeforeEjection, Duration ejection, double maxEjectedFraction,
+                     LongSupplier clock, IntUnaryOperator random) {
+        this.decayNanos = decay.toNanos();
+        this.failuresBeforeEjection = failuresBeforeEjection;
+        this.ejectionNanos = ejection.toNanos();
+        this.maxEjectedFraction = maxEjectedFraction;
+        this.clock = clock;
+        this.random = random;
+    }
+
+    public ServiceInstance choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return null;
+        }
+        if (stats.size() > instances.size()) {
+            forgetRemoved(instances);
+        }
+        long now = clock.getAsLong();
+        List<ServiceInstance> candidates = instances.stream()
+                .filter(instance -> !statsOf(instance).isEjected(now))
+                .toList();
+        if (candidates.isEmpty()) {
+            candidates = instances; // tout est écarté : mieux vaut tenter que refuser
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        int first = random.applyAsInt(candidates.size());
+        int second = random.applyAsInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return statsOf(a).cost(now, decayNanos) <= statsOf(b).cost(now, decayNanos) ? a : b;
+    }
+
+    public void onStart(ServiceInstance instance) {
+        statsOf(instance).inFlight.incrementAndGet();
+    }
+
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean success) {
+        InstanceStats instanceStats = statsOf(instance);
+        long now = clock.getAsLong();
+        instanceStats.inFlight.decrementAndGet();
+        if (latencyNanos > 0) {
+            instanceStats.observe(now, latencyNanos, decayNanos);
+        }
+        if (success) {
+            instanceStats.consecutiveFailures.set(0);
+        } else if (instanceStats.consecutiveFailures.incrementAndGet() >= failuresBeforeEjection && canEject(now)) {
+            instanceStats.consecutiveFailures.set(0);
+            instanceStats.ejectedUntil = now + ejectionNanos;
+        }
+    }
+
+    boolean isEjected(ServiceInstance instance) {
+        return statsOf(instance).isEjected(clock.getAsLong());
+    }
+
+    private boolean canEject(long now) {
+        long ejected = stats.values().stream().filter(s -> s.isEjected(now)).count();
+        return ejected + 1 <= Math.max(1, (long) Math.floor(stats.size() * maxEjectedFraction));
+    }
+
+    private void forgetRemoved(List<ServiceInstance> instances) {
+        Set<String> live = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            live.add(key(instance));
+        }
+        stats.keySet().retainAll(live);
+    }
+
+    private InstanceStats statsOf(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new InstanceStats());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static final class InstanceStats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long ejectedUntil;
+        private double ewmaNanos;
+        private long lastUpdate;
+
+        boolean isEjected(long now) {
+            return ejectedUntil - now > 0;
+        }
+
+        synchronized double cost(long now, long decayNanos) {
+            int pending = Math.max(0, inFlight.get());
+            if (ewmaNanos == 0) {
+                return pending == 0 ? 0 : UNOBSERVED_PENALTY;
+            }
+            // Sans nouvelle mesure, la latence retenue décroît : l'instance sera de nouveau sondée
+            double decayed = ewmaNanos * Math.exp(-(double) (now - lastUpdate) / decayNanos);
+            return decayed * (pending + 1);
+        }
+
+        synchronized void observe(long now, long latencyNanos, long decayNanos) {
+            if (latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - lastUpdate) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+            }
+            lastUpdate = now;
+        }
+    }
+}
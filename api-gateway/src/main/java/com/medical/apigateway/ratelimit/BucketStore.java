@@ -0,0 +1,60 @@
+package com.medical.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Buckets de rate limiting en mémoire, bornés en nombre et expirés après inactivité.
+ * <p>
+ * Un bucket inactif depuis plus longtemps que sa période est de toute façon plein :
+ * l'évincer ne change pas le comportement, un nouveau bucket plein sera recréé.
+ */
+@Component
+public class BucketStore implements MeterBinder {
+
+    private final Cache<String, Bucket> buckets;
+
+    public BucketStore(
+            @Value("${gateway.rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${gateway.rate-limit.idle-ttl:10m}") Duration idleTtl
+    ) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTtl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, buckets, "gateway.rate-limit.buckets");
+    }
+
+    public Bucket bucket(RateLimitPolicy policy, String key) {
+        return buckets.get(policy.name() + ':' + key, k -> newBucket(policy));
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    private static Bucket newBucket(RateLimitPolicy policy) {
+        Bandwidth limit = Bandwidth.builder()
+                .capacity(policy.capacity())
+                .refillGreedy(policy.capacity(), policy.period())
+                .build();
+
+        return Bucket.builder()
+                .addLimit(limit)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.medical.apigateway.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+// Buckets locaux à l'instance : mode par défaut, tests, et stockage du propriétaire en mode cluster
+@Component
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+
+    private final BucketStore bucketStore;
+
+    public InMemoryRateLimitBackend(BucketStore bucketStore) {
+        this.bucketStore = bucketStore;
+    }
+
+    @Override
+    public Mono<TokenLease> acquire(RateLimitPolicy policy, String key, long tokens) {
+        return Mono.just(acquireNow(policy, key, tokens));
+    }
+
+    public TokenLease acquireNow(RateLimitPolicy policy, String key, long tokens) {
+        Bucket bucket = bucketStore.bucket(policy, key);
+        long granted = bucket.tryConsumeAsMuchAsPossible(tokens);
+        long nanosToWait = granted > 0 ? 0 : bucket.estimateAbilityToConsume(1).getNanosToWaitForRefill();
+        return new TokenLease(granted, bucket.getAvailableTokens(), nanosToWait);
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+}
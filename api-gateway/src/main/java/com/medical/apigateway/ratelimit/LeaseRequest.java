@@ -0,0 +1,17 @@
+package com.medical.apigateway.ratelimit;
+
+import java.time.Duration;
+
+// Demande de jetons adressée à l'instance propriétaire d'une clé
+public record LeaseRequest(String policy, RateLimitPolicy.KeyStrategy strategy, long capacity,
+                           long periodMillis, String key, long tokens) {
+
+    public static LeaseRequest of(RateLimitPolicy policy, String key, long tokens) {
+        return new LeaseRequest(policy.name(), policy.key(), policy.capacity(),
+                policy.period().toMillis(), key, tokens);
+    }
+
+    public RateLimitPolicy toPolicy() {
+        return new RateLimitPolicy(policy, strategy, capacity, Duration.ofMillis(periodMillis));
+    }
+}
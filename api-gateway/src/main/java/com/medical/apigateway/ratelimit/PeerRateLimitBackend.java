@@ -0,0 +1,127 @@
+package com.medical.apigateway.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Rate limiting partagé entre les réplicas de la gateway, sans stockage externe.
+ * <p>
+ * Chaque clé appartient à une seule instance, choisie par hachage de rendez-vous sur la liste
+ * Eureka (seules les clés de l'instance qui part ou arrive changent de propriétaire). Le
+ * propriétaire tient le bucket ; les autres lui prennent des lots de jetons sur
+ * POST /internal/rate-limit/lease. Si le propriétaire ne répond pas, la limite est appliquée
+ * localement, divisée par le nombre de réplicas.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "gateway.rate-limit.mode", havingValue = "cluster")
+@Slf4j
+public class PeerRateLimitBackend implements RateLimitBackend {
+
+    public static final String LEASE_PATH = "/internal/rate-limit/lease";
+    public static final String SECRET_HEADER = "X-Rate-Limit-Secret";
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final InMemoryRateLimitBackend local;
+    private final WebClient webClient;
+    private final String serviceId;
+    private final String peerSecret;
+    private final Duration timeout;
+
+    public PeerRateLimitBackend(
+            DiscoveryClient discoveryClient,
+            ObjectProvider<Registration> registration,
+            InMemoryRateLimitBackend local,
+            @Value("${spring.application.name}") String serviceId,
+            @Value("${gateway.rate-limit.peer-secret}") String peerSecret,
+            @Value("${gateway.rate-limit.peer-timeout:200ms}") Duration timeout
+    ) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.local = local;
+        // Appels directs à une instance donnée : pas de WebClient load-balancé
+        this.webClient = WebClient.create();
+        this.serviceId = serviceId;
+        this.peerSecret = peerSecret;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Mono<TokenLease> acquire(RateLimitPolicy policy, String key, long tokens) {
+        List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+        ServiceInstance owner = owner(instances, policy.name() + ':' + key);
+        Registration self = registration.getIfAvailable();
+        if (owner == null || (self != null && isSelf(self, owner))) {
+            return local.acquire(policy, key, tokens);
+        }
+
+        return webClient.post()
+                .uri(owner.getUri() + LEASE_PATH)
+                .header(SECRET_HEADER, peerSecret)
+                .bodyValue(LeaseRequest.of(policy, key, tokens))
+                .retrieve()
+                .bodyToMono(TokenLease.class)
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Rate limit: owner {} unreachable ({}), applying local share",
+                            owner.getUri(), e.getMessage());
+                    return local.acquire(localShare(policy, instances.size()), key, tokens);
+                });
+    }
+
+    @Override
+    public boolean isRemote() {
+        return true;
+    }
+
+    public boolean isPeerSecret(String secret) {
+        return secret != null && MessageDigest.isEqual(
+                secret.getBytes(StandardCharsets.UTF_8),
+                peerSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Hachage de rendez-vous : l'instance au score le plus élevé pour la clé
+    static ServiceInstance owner(List<ServiceInstance> instances, String key) {
+        ServiceInstance owner = null;
+        long best = Long.MIN_VALUE;
+        for (ServiceInstance instance : instances) {
+            long score = mix((key + '|' + instance.getHost() + ':' + instance.getPort()).hashCode());
+            if (owner == null || score > best) {
+                owner = instance;
+                best = score;
+            }
+        }
+        return owner;
+    }
+
+    private static long mix(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+
+    private static RateLimitPolicy localShare(RateLimitPolicy policy, int replicas) {
+        return new RateLimitPolicy(policy.name() + "-local", policy.key(),
+                Math.max(1, policy.capacity() / Math.max(1, replicas)), policy.period());
+    }
+
+    private static boolean isSelf(Registration self, ServiceInstance instance) {
+        return self.getHost().equalsIgnoreCase(instance.getHost()) && self.getPort() == instance.getPort();
+    }
+}
@@ -0,0 +1,19 @@
+package com.medical.apigateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Stockage des buckets de rate limiting : en mémoire (une instance) ou partagé entre réplicas.
+ */
+public interface RateLimitBackend {
+
+    /**
+     * Prélève jusqu'à "tokens" jetons dans le bucket de la clé ; peut en accorder moins.
+     */
+    Mono<TokenLease> acquire(RateLimitPolicy policy, String key, long tokens);
+
+    /**
+     * Vrai si un prélèvement coûte un aller-retour réseau : les jetons sont alors pris par lots.
+     */
+    boolean isRemote();
+}
@@ -0,0 +1,35 @@
+package com.medical.apigateway.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Limite appliquée sur une route : "capacity" requêtes par "period", par clé.
+ *
+ * @param name     identifiant de la politique (préfixe des clés de buckets)
+ * @param key      ce qui partage un même budget
+ * @param capacity nombre de requêtes autorisées par période
+ * @param period   période de recharge complète
+ */
+public record RateLimitPolicy(String name, KeyStrategy key, long capacity, Duration period) {
+
+    public enum KeyStrategy {
+        // Sujet du JWT ; à défaut (JWT désactivé, route publique) l'adresse IP
+        USER,
+        // Adresse IP du client (attention aux NAT : tout un cabinet partage le budget)
+        IP,
+        // Un seul budget pour la route, tous clients confondus
+        ROUTE
+    }
+
+    public static RateLimitPolicy perUser(String name, long capacity, Duration period) {
+        return new RateLimitPolicy(name, KeyStrategy.USER, capacity, period);
+    }
+
+    public static RateLimitPolicy perIp(String name, long capacity, Duration period) {
+        return new RateLimitPolicy(name, KeyStrategy.IP, capacity, period);
+    }
+
+    public static RateLimitPolicy perRoute(String name, long capacity, Duration period) {
+        return new RateLimitPolicy(name, KeyStrategy.ROUTE, capacity, period);
+    }
+}
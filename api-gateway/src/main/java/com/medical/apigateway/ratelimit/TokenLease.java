@@ -0,0 +1,15 @@
+package com.medical.apigateway.ratelimit;
+
+/**
+ * Jetons accordés par un backend de rate limiting.
+ *
+ * @param granted              jetons accordés (0 si le bucket est vide)
+ * @param remaining            jetons restant dans le bucket après l'accord
+ * @param nanosToWaitForRefill attente avant le prochain jeton lorsque rien n'a été accordé
+ */
+public record TokenLease(long granted, long remaining, long nanosToWaitForRefill) {
+
+    public boolean isGranted() {
+        return granted > 0;
+    }
+}
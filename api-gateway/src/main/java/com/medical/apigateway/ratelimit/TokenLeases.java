@@ -0,0 +1,77 @@
+package com.medical.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jetons pris par lots au backend et consommés localement.
+ * <p>
+ * Avec un backend distant, seule une requête sur "lot" paie l'aller-retour réseau.
+ * Les jetons d'un lot non consommés avant "lease-ttl" sont abandonnés : la limite globale
+ * n'est jamais dépassée, au pire légèrement sous-utilisée.
+ */
+@Component
+public class TokenLeases {
+
+    private final RateLimitBackend backend;
+    private final double leaseFraction;
+    private final Cache<String, AtomicLong> leases;
+
+    public TokenLeases(
+            RateLimitBackend backend,
+            @Value("${gateway.rate-limit.lease-fraction:0.05}") double leaseFraction,
+            @Value("${gateway.rate-limit.lease-ttl:2s}") Duration leaseTtl,
+            @Value("${gateway.rate-limit.max-keys:100000}") long maxKeys
+    ) {
+        this.backend = backend;
+        this.leaseFraction = leaseFraction;
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(leaseTtl)
+                .build();
+    }
+
+    // Un jeton pour la clé : accordé (granted = 1) ou refusé avec l'attente avant recharge
+    public Mono<TokenLease> tryConsume(RateLimitPolicy policy, String key) {
+        if (!backend.isRemote()) {
+            return backend.acquire(policy, key, 1);
+        }
+
+        AtomicLong leased = leases.get(policy.name() + ':' + key, k -> new AtomicLong());
+        long left = takeOne(leased);
+        if (left >= 0) {
+            return Mono.just(new TokenLease(1, left, 0));
+        }
+        return backend.acquire(policy, key, leaseSize(policy))
+                .map(lease -> {
+                    if (!lease.isGranted()) {
+                        return lease;
+                    }
+                    long kept = leased.addAndGet(lease.granted() - 1);
+                    return new TokenLease(1, lease.remaining() + kept, 0);
+                });
+    }
+
+    private long leaseSize(RateLimitPolicy policy) {
+        return Math.max(1, (long) (policy.capacity() * leaseFraction));
+    }
+
+    // Jetons restants après prélèvement, -1 si le lot local est vide
+    private static long takeOne(AtomicLong leased) {
+        while (true) {
+            long current = leased.get();
+            if (current <= 0) {
+                return -1;
+            }
+            if (leased.compareAndSet(current, current - 1)) {
+                return current - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.medical.apigateway.resilience;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget global de retries : chaque requête dépose "ratio" jeton, chaque retry en consomme un.
+ * Quand un service tombe, les retries restent bornés à ~ratio du trafic (plus un minimum
+ * par seconde) au lieu de multiplier la charge sur un service déjà en difficulté.
+ */
+@Component
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance = new AtomicLong();
+    private final Bucket minimum;
+
+    public RetryBudget(
+            @Value("${gateway.retry-budget.ratio:0.1}") double ratio,
+            @Value("${gateway.retry-budget.min-per-second:10}") long minPerSecond,
+            @Value("${gateway.retry-budget.max-balance:100}") long maxBalance
+    ) {
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.maxBalance = maxBalance * SCALE;
+        this.minimum = Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(Math.max(1, minPerSecond))
+                        .refillGreedy(Math.max(1, minPerSecond), Duration.ofSeconds(1))
+                        .build())
+                .build();
+    }
+
+    public void onRequest() {
+        balance.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    public boolean tryRetry() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return minimum.tryConsume(1);
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.medical.apigateway.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.apigateway.exception.ErrorResponse;
+import com.medical.apigateway.exception.ErrorResponseWriter;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écriture d'une réponse d'erreur, comme pendant une panne où toutes les requêtes échouent :
+ * gestionnaire d'origine (ObjectMapper créé à chaque erreur, statut déduit du message) contre
+ * ErrorResponseWriter, et corps JWT formaté à chaque fois contre corps pré-encodé.
+ * <p>
+ * Les buffers viennent du pool Netty, comme en production, et sont libérés après écriture.
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ErrorResponseBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorResponseBenchmark {
+
+    private static final ErrorResponseWriter.PreEncodedError INVALID_TOKEN = ErrorResponseWriter.preEncode(
+            HttpStatus.UNAUTHORIZED, "Invalid JWT token");
+
+    // no-instance : aucune instance dans Eureka (503) ; connect : connexion refusée par l'instance
+    @Param({"no-instance", "connect"})
+    public String failure;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private ErrorResponseWriter errorResponseWriter;
+    private ServerWebExchange exchange;
+    private Throwable error;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        errorResponseWriter = new ErrorResponseWriter(new ObjectMapper());
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/patients/1"));
+        error = switch (failure) {
+            case "no-instance" -> new NotFoundException("Unable to find instance for ms-patients");
+            case "connect" -> new ConnectException("Connection refused: ms-patients/10.0.0.12:8081");
+            default -> throw new IllegalArgumentException(failure);
+        };
+    }
+
+    @Benchmark
+    public Void previousHandler() {
+        return previousHandle(withNewResponse(), error).block();
+    }
+
+    @Benchmark
+    public Void errorResponseWriter() {
+        return errorResponseWriter.write(withNewResponse(), error).block();
+    }
+
+    @Benchmark
+    public Void previousJwtError() {
+        ServerWebExchange exchange = withNewResponse();
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        exchange.getResponse().getHeaders().add("Content-Type", "application/json");
+        String errorJson = String.format("{\"error\": \"%s\", \"status\": %d}",
+                "Invalid JWT token", HttpStatus.UNAUTHORIZED.value());
+        return exchange.getResponse()
+                .writeWith(Mono.just(exchange.getResponse().bufferFactory()
+                        .wrap(errorJson.getBytes(Charset.defaultCharset()))))
+                .block();
+    }
+
+    @Benchmark
+    public Void preEncodedJwtError() {
+        return errorResponseWriter.write(withNewResponse(), INVALID_TOKEN).block();
+    }
+
+    // Même échange, réponse neuve à chaque appel ; le corps écrit est libéré
+    private ServerWebExchange withNewResponse() {
+        MockServerHttpResponse response = new MockServerHttpResponse(bufferFactory);
+        response.setWriteHandler(body -> Flux.from(body).doOnNext(DataBufferUtils::release).then());
+        return exchange.mutate().response(response).build();
+    }
+
+    // GlobalExceptionHandler.handle avant ErrorResponseWriter
+    private static Mono<Void> previousHandle(ServerWebExchange exchange, Throwable ex) {
+        HttpStatus status = previousStatus(ex);
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(ex.getMessage() != null ? ex.getMessage() : "Unexpected error")
+                .path(exchange.getRequest().getPath().toString())
+                .timestamp(System.currentTimeMillis())
+                .build();
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        byte[] bytes;
+        try {
+            bytes = new ObjectMapper().writeValueAsBytes(errorResponse);
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+        DataBuffer buffer = response.bufferFactory().wrap(bytes);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    private static HttpStatus previousStatus(Throwable ex) {
+        if (ex instanceof ResponseStatusException statusException) {
+            return (HttpStatus) statusException.getStatusCode();
+        }
+        if (ex.getMessage() != null) {
+            if (ex.getMessage().contains("401") || ex.getMessage().contains("Unauthorized")) {
+                return HttpStatus.UNAUTHORIZED;
+            }
+            if (ex.getMessage().contains("403") || ex.getMessage().contains("Forbidden")) {
+                return HttpStatus.FORBIDDEN;
+            }
+            if (ex.getMessage().contains("404") || ex.getMessage().contains("Not Found")) {
+                return HttpStatus.NOT_FOUND;
+            }
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
@@ -0,0 +1,131 @@
+package com.medical.apigateway.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.apigateway.exception.ErrorResponseWriter;
+import com.medical.apigateway.filter.JwtAuthenticationFilter;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation JWT : parser reconstruit à chaque requête (comportement d'origine), parser partagé,
+ * et filtre complet avec le cache des tokens vérifiés.
+ * <p>
+ * {@code distinctTokens = 1} : le même token à chaque requête (appels d'une même page), toujours en cache.
+ * {@code distinctTokens = 100000} : dix fois plus de tokens que {@code jwt.cache.max-size}, surtout des défauts.
+ * {@code exchangeOnly} donne le coût de construction de l'échange, inclus dans {@code filter}.
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Djmh.args="JwtValidationBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-of-at-least-256-bits!!";
+    private static final long CACHE_MAX_SIZE = 10_000;
+
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+    @Param({"1", "100000"})
+    public int distinctTokens;
+
+    private String[] tokens;
+    private JwtParser sharedParser;
+    private JwtAuthenticationFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Date expiration = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        tokens = new String[distinctTokens];
+        for (int i = 0; i < distinctTokens; i++) {
+            tokens[i] = Jwts.builder()
+                    .subject("user-" + i)
+                    .claim("roles", List.of("DOCTOR"))
+                    .expiration(expiration)
+                    .signWith(key)
+                    .compact();
+        }
+
+        sharedParser = Jwts.parser().verifyWith(key).build();
+
+        filter = new JwtAuthenticationFilter(new ErrorResponseWriter(new ObjectMapper()));
+        ReflectionTestUtils.setField(filter, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(filter, "jwtEnabled", true);
+        ReflectionTestUtils.setField(filter, "cacheMaxSize", CACHE_MAX_SIZE);
+        ReflectionTestUtils.setField(filter, "cacheMaxTtlSeconds", 600L);
+        filter.init();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        String token(String[] tokens) {
+            String token = tokens[next];
+            next = next + 1 == tokens.length ? 0 : next + 1;
+            return token;
+        }
+    }
+
+    // Avant : clé HMAC et parser construits à chaque requête, signature vérifiée à chaque fois
+    @Benchmark
+    public Claims rebuildParserPerRequest(Cursor cursor) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(cursor.token(tokens))
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims sharedParser(Cursor cursor) {
+        return sharedParser.parseSignedClaims(cursor.token(tokens)).getPayload();
+    }
+
+    // Filtre complet : cache des tokens vérifiés, attribut sujet, en-têtes d'identité
+    @Benchmark
+    public Void filter(Cursor cursor) {
+        return filter.filter(exchange(cursor.token(tokens)), CHAIN).block();
+    }
+
+    @Benchmark
+    public MockServerWebExchange exchangeOnly(Cursor cursor) {
+        return exchange(cursor.token(tokens));
+    }
+
+    private static MockServerWebExchange exchange(String token) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+}
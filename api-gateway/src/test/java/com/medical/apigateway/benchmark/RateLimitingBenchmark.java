@@ -0,0 +1,116 @@
+package com.medical.apigateway.benchmark;
+
+import com.medical.apigateway.filter.RateLimitingFilter;
+import com.medical.apigateway.ratelimit.BucketStore;
+import com.medical.apigateway.ratelimit.InMemoryRateLimitBackend;
+import com.medical.apigateway.ratelimit.RateLimitPolicy;
+import com.medical.apigateway.ratelimit.TokenLease;
+import com.medical.apigateway.ratelimit.TokenLeases;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par requête du rate limiting local et mémoire occupée par les buckets.
+ * <p>
+ * {@code distinctKeys = 1} : un seul client, son bucket reste en cache.
+ * {@code distinctKeys = 1000000} : une clé différente à chaque requête ; au-delà de {@code maxKeys}
+ * le store évince, chaque requête crée alors un bucket.
+ * La mémoire des buckets (store rempli, après GC) est affichée au démarrage de chaque essai.
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Djmh.args="RateLimitingBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RateLimitingBenchmark {
+
+    // Capacité inatteignable : on mesure le chemin "accordé", celui de presque toutes les requêtes
+    private static final RateLimitPolicy POLICY =
+            RateLimitPolicy.perIp("bench", 1_000_000_000L, Duration.ofMinutes(1));
+
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+    @Param({"1", "1000000"})
+    public int distinctKeys;
+
+    @Param({"100000", "1000000"})
+    public long maxKeys;
+
+    private String[] keys;
+    private TokenLeases tokenLeases;
+    private GatewayFilter filter;
+    private MockServerWebExchange exchange;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new String[distinctKeys];
+        for (int i = 0; i < distinctKeys; i++) {
+            keys[i] = "ip:10." + (i >>> 16 & 0xff) + '.' + (i >>> 8 & 0xff) + '.' + (i & 0xff);
+        }
+
+        long before = usedHeapAfterGc();
+        BucketStore bucketStore = new BucketStore(maxKeys, Duration.ofMinutes(10));
+        tokenLeases = new TokenLeases(new InMemoryRateLimitBackend(bucketStore), 0.05, Duration.ofSeconds(2), maxKeys);
+        for (String key : keys) {
+            tokenLeases.tryConsume(POLICY, key).block();
+        }
+        long buckets = bucketStore.size();
+        long used = usedHeapAfterGc() - before;
+        System.out.printf("%n[buckets] distinctKeys=%d maxKeys=%d buckets=%d heap=%d MB (%d octets/bucket)%n",
+                distinctKeys, maxKeys, buckets, used >> 20, buckets > 0 ? used / buckets : 0);
+
+        filter = new RateLimitingFilter(tokenLeases).with(POLICY);
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/patients/1")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 40000)));
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    // Prélèvement d'un jeton, clé suivante à chaque appel
+    @Benchmark
+    public TokenLease tryConsume(Cursor cursor) {
+        String key = keys[cursor.next];
+        cursor.next = cursor.next + 1 == keys.length ? 0 : cursor.next + 1;
+        return tokenLeases.tryConsume(POLICY, key).block();
+    }
+
+    // Filtre complet pour un client : clé depuis l'adresse, prélèvement, en-tête X-RateLimit-Remaining
+    @Benchmark
+    public Void filterSingleClient() {
+        return filter.filter(exchange, CHAIN).block();
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,98 @@
+package com.medical.apigateway.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Endpoints internes de ms-patients : refusés par la gateway sans atteindre le service
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.config.enabled=false",
+        "spring.security.user.name=test",
+        "spring.security.user.password=test"
+})
+class InternalRoutesTest {
+
+    private static final AtomicInteger upstreamCalls = new AtomicInteger();
+    private static HttpServer upstream;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.setExecutor(Executors.newCachedThreadPool());
+        upstream.createContext("/api", exchange -> {
+            upstreamCalls.incrementAndGet();
+            respond(exchange, 200, "{}");
+        });
+        upstream.start();
+        registry.add("spring.cloud.discovery.client.simple.instances.ms-patients[0].uri",
+                () -> "http://localhost:" + upstream.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @BeforeEach
+    void resetCounter() {
+        upstreamCalls.set(0);
+    }
+
+    @Test
+    void internalEndpointsAreNotRouted() {
+        webTestClient.get().uri("/api/patients/export")
+                .headers(headers -> headers.setBasicAuth("test", "test"))
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.get().uri("/api/dossiers/export")
+                .headers(headers -> headers.setBasicAuth("test", "test"))
+                .exchange()
+                .expectStatus().isNotFound();
+        // Route bloquée quelle que soit la méthode (GET : pas de jeton CSRF à fournir)
+        webTestClient.get().uri("/api/patients/exists")
+                .headers(headers -> headers.setBasicAuth("test", "test"))
+                .exchange()
+                .expectStatus().isNotFound();
+
+        assertThat(upstreamCalls.get()).isZero();
+    }
+
+    @Test
+    void otherPatientEndpointsStillReachTheService() {
+        webTestClient.get().uri("/api/patients/1")
+                .headers(headers -> headers.setBasicAuth("test", "test"))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
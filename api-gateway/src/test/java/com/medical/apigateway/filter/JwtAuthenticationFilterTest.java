@@ -0,0 +1,90 @@
+package com.medical.apigateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.apigateway.exception.ErrorResponseWriter;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "test-secret-key-of-at-least-256-bits-long!!";
+
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.set(exchange);
+        return Mono.empty();
+    };
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(new ErrorResponseWriter(new ObjectMapper()));
+        ReflectionTestUtils.setField(filter, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(filter, "jwtEnabled", true);
+        ReflectionTestUtils.setField(filter, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(filter, "cacheMaxTtlSeconds", 600L);
+        filter.init();
+    }
+
+    @Test
+    void healthPathIsForwardedWithoutClientIdentity() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/health"));
+
+        filter.filter(exchange, chain).block();
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertThat(headers.containsKey(JwtAuthenticationFilter.USER_ID_HEADER)).isFalse();
+        assertThat(headers.containsKey(JwtAuthenticationFilter.USER_ROLES_HEADER)).isFalse();
+    }
+
+    @Test
+    void pathMerelyContainingHealthRequiresToken() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/patients/api/health"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(forwarded.get()).isNull();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void identityComesFromTokenOnly() {
+        String token = Jwts.builder()
+                .subject("user-1")
+                .claim("roles", List.of("DOCTOR"))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+        filter.filter(exchange, chain).block();
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertThat(headers.get(JwtAuthenticationFilter.USER_ID_HEADER)).containsExactly("user-1");
+        assertThat(headers.get(JwtAuthenticationFilter.USER_ROLES_HEADER)).containsExactly("DOCTOR");
+    }
+
+    // Identité forgée par le client, qui ne doit jamais atteindre les services
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request
+                .header(JwtAuthenticationFilter.USER_ID_HEADER, "admin")
+                .header(JwtAuthenticationFilter.USER_ROLES_HEADER, "ADMIN"));
+    }
+}
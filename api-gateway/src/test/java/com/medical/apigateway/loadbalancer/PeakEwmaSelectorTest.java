@@ -0,0 +1,111 @@
+package com.medical.apigateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Simulation en temps virtuel : 5 réplicas dont un lent (pause GC, voisin bruyant)
+class PeakEwmaSelectorTest {
+
+    private static final long MS = 1_000_000L;
+    private static final int REQUESTS = 20_000;
+
+    private final List<ServiceInstance> instances = List.of(
+            instance("10.0.0.1"), instance("10.0.0.2"), instance("10.0.0.3"),
+            instance("10.0.0.4"), instance("10.0.0.5"));
+    private final ServiceInstance slow = instances.get(2);
+
+    private long now;
+
+    @Test
+    void slowReplicaNoLongerDrivesTheP99() {
+        int[] next = {0};
+        long roundRobinP99 = simulate(new Random(7), ignored -> instances.get(next[0]++ % instances.size()), null);
+
+        Random random = new Random(7);
+        PeakEwmaSelector selector = new PeakEwmaSelector(Duration.ofSeconds(10), 5, Duration.ofSeconds(30), 0.5,
+                () -> now, random::nextInt);
+        long peakEwmaP99 = simulate(random, selector::choose, selector);
+
+        assertThat(roundRobinP99).isGreaterThanOrEqualTo(450 * MS);
+        assertThat(peakEwmaP99).isLessThan(50 * MS);
+    }
+
+    @Test
+    void failingReplicaIsEjectedThenReadmitted() {
+        PeakEwmaSelector selector = new PeakEwmaSelector(Duration.ofSeconds(10), 3, Duration.ofSeconds(30), 0.5,
+                () -> now, new Random(7)::nextInt);
+        ServiceInstance failing = instances.get(0);
+        for (int i = 0; i < 3; i++) {
+            selector.onStart(failing);
+            selector.onComplete(failing, 5 * MS, false);
+        }
+        assertThat(selector.isEjected(failing)).isTrue();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(selector.choose(instances)).isNotEqualTo(failing);
+        }
+
+        now += Duration.ofSeconds(31).toNanos();
+        assertThat(selector.isEjected(failing)).isFalse();
+    }
+
+    @Test
+    void neverEjectsMoreThanTheAllowedFraction() {
+        PeakEwmaSelector selector = new PeakEwmaSelector(Duration.ofSeconds(10), 1, Duration.ofSeconds(30), 0.5,
+                () -> now, new Random(7)::nextInt);
+        instances.forEach(selector::onStart);
+        instances.forEach(instance -> selector.onComplete(instance, MS, false));
+
+        long ejected = instances.stream().filter(selector::isEjected).count();
+        assertThat(ejected).isEqualTo(2);
+    }
+
+    // Une requête par milliseconde ; renvoie le p99 des latences observées
+    private long simulate(Random random, Function<List<ServiceInstance>, ServiceInstance> chooser,
+                          PeakEwmaSelector selector) {
+        record Completion(long at, ServiceInstance instance, long latency) {
+        }
+        PriorityQueue<Completion> pending = new PriorityQueue<>((a, b) -> Long.compare(a.at(), b.at()));
+        long[] latencies = new long[REQUESTS];
+        now = 0;
+
+        for (int i = 0; i < REQUESTS; i++) {
+            long arrival = i * MS;
+            while (!pending.isEmpty() && pending.peek().at() <= arrival) {
+                Completion done = pending.poll();
+                now = done.at();
+                if (selector != null) {
+                    selector.onComplete(done.instance(), done.latency(), true);
+                }
+            }
+            now = arrival;
+            ServiceInstance chosen = chooser.apply(instances);
+            if (selector != null) {
+                selector.onStart(chosen);
+            }
+            long latency = chosen == slow
+                    ? (450 + random.nextInt(100)) * MS
+                    : (15 + random.nextInt(10)) * MS;
+            latencies[i] = latency;
+            pending.add(new Completion(arrival + latency, chosen, latency));
+        }
+
+        Arrays.sort(latencies);
+        return latencies[(int) Math.ceil(REQUESTS * 0.99) - 1];
+    }
+
+    private static ServiceInstance instance(String host) {
+        return new DefaultServiceInstance(host + ":appointments-service:8082", "appointments-service",
+                host, 8082, false);
+    }
+}
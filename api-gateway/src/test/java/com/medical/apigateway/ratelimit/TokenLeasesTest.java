@@ -0,0 +1,73 @@
+package com.medical.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenLeasesTest {
+
+    private static final RateLimitPolicy POLICY =
+            RateLimitPolicy.perUser("test", 100, Duration.ofMinutes(1));
+
+    @Test
+    void remoteBackendIsCalledOncePerLeaseAndNeverOverAdmits() {
+        CountingRemoteBackend backend = new CountingRemoteBackend(
+                new InMemoryRateLimitBackend(new BucketStore(1000, Duration.ofMinutes(10))));
+        // Deux réplicas partageant le même backend
+        TokenLeases replicaA = new TokenLeases(backend, 0.1, Duration.ofMinutes(1), 1000);
+        TokenLeases replicaB = new TokenLeases(backend, 0.1, Duration.ofMinutes(1), 1000);
+
+        int admitted = 0;
+        for (int i = 0; i < 150; i++) {
+            TokenLeases replica = i % 2 == 0 ? replicaA : replicaB;
+            if (replica.tryConsume(POLICY, "user:alice").block().isGranted()) {
+                admitted++;
+            }
+        }
+
+        assertThat(admitted).isEqualTo(100);
+        // Lots de 10 jetons : environ un appel pour 10 requêtes admises
+        assertThat(backend.calls.get()).isLessThan(30);
+    }
+
+    @Test
+    void inMemoryBackendIsUsedDirectly() {
+        TokenLeases leases = new TokenLeases(
+                new InMemoryRateLimitBackend(new BucketStore(1000, Duration.ofMinutes(10))),
+                0.1, Duration.ofMinutes(1), 1000);
+        RateLimitPolicy tiny = RateLimitPolicy.perIp("tiny", 2, Duration.ofMinutes(1));
+
+        assertThat(leases.tryConsume(tiny, "ip:10.0.0.1").block().isGranted()).isTrue();
+        assertThat(leases.tryConsume(tiny, "ip:10.0.0.1").block().isGranted()).isTrue();
+        TokenLease rejected = leases.tryConsume(tiny, "ip:10.0.0.1").block();
+        assertThat(rejected.isGranted()).isFalse();
+        assertThat(rejected.nanosToWaitForRefill()).isPositive();
+        assertThat(leases.tryConsume(tiny, "ip:10.0.0.2").block().isGranted()).isTrue();
+    }
+
+    // Backend en mémoire présenté comme distant, pour compter les allers-retours
+    private static class CountingRemoteBackend implements RateLimitBackend {
+
+        private final InMemoryRateLimitBackend delegate;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        CountingRemoteBackend(InMemoryRateLimitBackend delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Mono<TokenLease> acquire(RateLimitPolicy policy, String key, long tokens) {
+            calls.incrementAndGet();
+            return delegate.acquire(policy, key, tokens);
+        }
+
+        @Override
+        public boolean isRemote() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.medical.apigateway.resilience;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Route appointments-service dirigée vers un service local volontairement lent ou indisponible
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.config.enabled=false",
+        "spring.security.user.name=test",
+        "spring.security.user.password=test",
+        "gateway.resilience.appointments-service.response-timeout=300ms",
+        "gateway.resilience.appointments-service.retries=2"
+})
+class RouteResilienceTest {
+
+    private static final AtomicInteger unavailableCalls = new AtomicInteger();
+    private static HttpServer upstream;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.setExecutor(Executors.newCachedThreadPool());
+        upstream.createContext("/api/appointments/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "[]");
+        });
+        upstream.createContext("/api/appointments/unavailable", exchange -> {
+            unavailableCalls.incrementAndGet();
+            respond(exchange, 503, "{}");
+        });
+        upstream.start();
+        registry.add("spring.cloud.discovery.client.simple.instances.appointments-service[0].uri",
+                () -> "http://localhost:" + upstream.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @BeforeEach
+    void resetCounters() {
+        unavailableCalls.set(0);
+    }
+
+    @Test
+    void slowUpstreamIsCutAtTheRouteTimeout() {
+        long start = System.nanoTime();
+
+        webTestClient.get().uri("/api/appointments/slow")
+                .headers(headers -> headers.setBasicAuth("test", "test"))
+                .exchange()
+                .expectStatus().isEqualTo(504)
+                .expectBody().jsonPath("$.status").isEqualTo(504);
+
+        // Pas de retry sur timeout : une seule attente de 300 ms
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1500);
+    }
+
+    @Test
+    void idempotentRequestIsRetriedThenFallsBack() {
+        webTestClient.get().uri("/api/appointments/unavailable")
+                .headers(headers -> headers.setBasicAuth("test", "test"))
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody().jsonPath("$.message").isEqualTo("appointments-service is temporarily unavailable");
+
+        assertThat(unavailableCalls.get()).isEqualTo(3);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.medical.appointmentsservice.client;
+
+import com.medical.appointmentsservice.dto.PatientIdsResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Collection;
+
+// Client ms-patients (résolu via Eureka)
+@FeignClient(name = "ms-patients", path = "/api/patients")
+public interface PatientClient {
+
+    // Renvoie, parmi les IDs envoyés, ceux qui existent (500 au plus par appel)
+    @PostMapping("/exists")
+    PatientIdsResponse findExistingIds(@RequestBody Collection<Long> ids);
+}
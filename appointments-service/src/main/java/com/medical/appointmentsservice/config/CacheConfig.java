@@ -0,0 +1,28 @@
+package com.medical.appointmentsservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Caches Caffeine locaux (taille + TTL via spring.cache.caffeine.spec),
+// statistiques exposées par l'actuator (cache.gets, cache.evictions...)
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String DOCTORS = "doctors";
+    public static final String DOCTOR_IDS_BY_SPECIALIZATION = "doctorIdsBySpecialization";
+
+    // Écritures et évictions appliquées après le commit : un rollback ne laisse pas
+    // en cache un médecin modifié ou supprimé qui ne l'est pas en base
+    @Bean
+    public CacheManager cacheManager(@Value("${spring.cache.caffeine.spec}") String spec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(DOCTORS, DOCTOR_IDS_BY_SPECIALIZATION);
+        caffeineCacheManager.setCacheSpecification(spec);
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
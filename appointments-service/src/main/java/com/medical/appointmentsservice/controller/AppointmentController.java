@@ -1,7 +1,10 @@
 package com.medical.appointmentsservice.controller;
 
+import com.medical.appointmentsservice.dto.AppointmentBatchRequest;
+import com.medical.appointmentsservice.dto.AppointmentBatchResponse;
 import com.medical.appointmentsservice.dto.AppointmentDTO;
 import com.medical.appointmentsservice.dto.AppointmentRequest;
+import com.medical.appointmentsservice.dto.CursorPage;
 import com.medical.appointmentsservice.service.AppointmentService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +29,13 @@ public class AppointmentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdAppointment);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<AppointmentBatchResponse> createAppointments(
+            @Valid @RequestBody AppointmentBatchRequest request) {
+        AppointmentBatchResponse response = appointmentService.createAppointments(request.getAppointments());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<AppointmentDTO> getAppointment(@PathVariable Long id) {
         AppointmentDTO appointmentDTO = appointmentService.getAppointmentById(id);
@@ -40,9 +50,11 @@ public class AppointmentController {
     }
 
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<List<AppointmentDTO>> getAppointmentsByDoctor(
-            @PathVariable Long doctorId) {
-        List<AppointmentDTO> appointments = appointmentService.getAppointmentsByDoctor(doctorId);
+    public ResponseEntity<CursorPage<AppointmentDTO>> getAppointmentsByDoctor(
+            @PathVariable Long doctorId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        CursorPage<AppointmentDTO> appointments = appointmentService.getAppointmentsByDoctor(doctorId, after, limit);
         return ResponseEntity.ok(appointments);
     }
 
@@ -1,13 +1,18 @@
 package com.medical.appointmentsservice.controller;
 
+import com.medical.appointmentsservice.dto.AvailableSlotDTO;
+import com.medical.appointmentsservice.dto.CursorPage;
 import com.medical.appointmentsservice.dto.DoctorDTO;
+import com.medical.appointmentsservice.service.AvailabilityService;
 import com.medical.appointmentsservice.service.DoctorService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,6 +23,9 @@ public class DoctorController {
     @Autowired
     private DoctorService doctorService;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
     @PostMapping
     public ResponseEntity<DoctorDTO> createDoctor(@RequestBody DoctorDTO doctorDTO) {
         DoctorDTO createdDoctor = doctorService.createDoctor(doctorDTO);
@@ -31,8 +39,10 @@ public class DoctorController {
     }
 
     @GetMapping
-    public ResponseEntity<List<DoctorDTO>> getAllDoctors() {
-        List<DoctorDTO> doctors = doctorService.getAllDoctors();
+    public ResponseEntity<CursorPage<DoctorDTO>> getAllDoctors(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        CursorPage<DoctorDTO> doctors = doctorService.getAllDoctors(after, limit);
         return ResponseEntity.ok(doctors);
     }
 
@@ -43,6 +53,19 @@ public class DoctorController {
         return ResponseEntity.ok(doctors);
     }
 
+    // Prochains créneaux libres de 30 min d'une spécialité (par défaut : les 7 prochains jours)
+    @GetMapping("/availability")
+    public ResponseEntity<List<AvailableSlotDTO>> getAvailability(
+            @RequestParam String specialization,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        LocalDateTime end = to != null ? to : start.plusDays(7);
+        List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(specialization, start, end, limit);
+        return ResponseEntity.ok(slots);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<DoctorDTO> updateDoctor(
             @PathVariable Long id,
@@ -0,0 +1,21 @@
+package com.medical.appointmentsservice.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentBatchItemResult {
+    private int index;
+    private boolean created;
+    private AppointmentDTO appointment;
+    private String error;
+
+    public static AppointmentBatchItemResult created(int index, AppointmentDTO appointment) {
+        return new AppointmentBatchItemResult(index, true, appointment, null);
+    }
+
+    public static AppointmentBatchItemResult rejected(int index, String error) {
+        return new AppointmentBatchItemResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,16 @@
+package com.medical.appointmentsservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class AppointmentBatchRequest {
+    @NotEmpty
+    @Size(max = 500)
+    @Valid
+    private List<AppointmentRequest> appointments;
+}
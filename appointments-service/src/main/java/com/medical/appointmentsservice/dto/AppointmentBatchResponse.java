@@ -0,0 +1,14 @@
+package com.medical.appointmentsservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentBatchResponse {
+    private int created;
+    private int rejected;
+    private List<AppointmentBatchItemResult> results;
+}
@@ -1,5 +1,6 @@
 package com.medical.appointmentsservice.dto;
 
+import com.medical.appointmentsservice.entity.AppointmentStatus;
 import lombok.*;
 import java.time.LocalDateTime;
 
@@ -14,4 +15,10 @@ public class AppointmentDTO {
     private String reason;
     private String status;
     private String notes;
+
+    // Projection JPQL (SELECT new ...) : lit doctor_id sans charger le médecin
+    public AppointmentDTO(Long id, Long doctorId, Long patientId, LocalDateTime appointmentDateTime,
+                          String reason, AppointmentStatus status, String notes) {
+        this(id, doctorId, patientId, appointmentDateTime, reason, status.name(), notes);
+    }
 }
@@ -0,0 +1,16 @@
+package com.medical.appointmentsservice.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableSlotDTO {
+    private Long doctorId;
+    private String doctorFirstName;
+    private String doctorLastName;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
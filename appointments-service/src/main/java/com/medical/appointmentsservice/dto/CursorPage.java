@@ -0,0 +1,27 @@
+package com.medical.appointmentsservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private int limit;
+    // ID à passer en ?after= pour la page suivante, null sur la dernière page
+    private Long nextCursor;
+
+    public static <T> CursorPage<T> of(List<T> items, int limit, Function<T, Long> idOf) {
+        Long nextCursor = items.size() == limit && !items.isEmpty()
+                ? idOf.apply(items.get(items.size() - 1))
+                : null;
+        return new CursorPage<>(items, limit, nextCursor);
+    }
+
+    public static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), 500);
+    }
+}
@@ -0,0 +1,15 @@
+package com.medical.appointmentsservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Enveloppe ApiResponse de ms-patients
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientIdsResponse {
+    private boolean success;
+    private String message;
+    private List<Long> data;
+}
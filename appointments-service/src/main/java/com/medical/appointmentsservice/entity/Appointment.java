@@ -3,23 +3,39 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments",
+        uniqueConstraints = @UniqueConstraint(
+                name = Appointment.SLOT_CONSTRAINT,
+                columnNames = {"doctor_id", "booked_slot"}),
+        indexes = {
+                @Index(name = "idx_appointments_doctor_id", columnList = "doctor_id, id"),
+                @Index(name = "idx_appointments_patient_date", columnList = "patient_id, appointment_date_time"),
+                @Index(name = "idx_appointments_status_date", columnList = "status, appointment_date_time")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Appointment {
+    public static final String SLOT_CONSTRAINT = "uk_appointments_doctor_slot";
+
+    // Séquence allouée par blocs : IDENTITY empêche le batching JDBC des insertions
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Doctor doctor;
 
     @Column(nullable = false)
@@ -28,6 +44,11 @@ public class Appointment {
     @Column(nullable = false)
     private LocalDateTime appointmentDateTime;
 
+    // Copie de appointmentDateTime tant que le RDV n'est pas annulé (NULL sinon),
+    // pour garantir en base l'unicité (médecin, créneau)
+    @Column(name = "booked_slot")
+    private LocalDateTime bookedSlot;
+
     @Column(length = 500)
     private String reason; // Motif de la consultation
 
@@ -43,4 +64,10 @@ public class Appointment {
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void syncBookedSlot() {
+        bookedSlot = status == AppointmentStatus.CANCELLED ? null : appointmentDateTime;
+    }
 }
@@ -0,0 +1,12 @@
+package com.medical.appointmentsservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class DoctorNotFoundException extends RuntimeException {
+
+    public DoctorNotFoundException(Long id) {
+        super("Médecin non trouvé : " + id);
+    }
+}
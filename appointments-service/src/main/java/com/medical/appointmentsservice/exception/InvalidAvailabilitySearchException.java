@@ -0,0 +1,12 @@
+package com.medical.appointmentsservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidAvailabilitySearchException extends RuntimeException {
+
+    public InvalidAvailabilitySearchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.medical.appointmentsservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class PatientNotFoundException extends RuntimeException {
+
+    public PatientNotFoundException(Long id) {
+        super("Patient non trouvé : " + id);
+    }
+}
@@ -0,0 +1,12 @@
+package com.medical.appointmentsservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PatientServiceUnavailableException extends RuntimeException {
+
+    public PatientServiceUnavailableException() {
+        super("Vérification des patients indisponible");
+    }
+}
@@ -0,0 +1,12 @@
+package com.medical.appointmentsservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SlotConflictException extends RuntimeException {
+
+    public SlotConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,25 +1,94 @@
 package com.medical.appointmentsservice.repository;
 
+import com.medical.appointmentsservice.dto.AppointmentDTO;
 import com.medical.appointmentsservice.entity.Appointment;
 import com.medical.appointmentsservice.entity.AppointmentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
-    List<Appointment> findByPatientId(Long patientId);
-    List<Appointment> findByDoctorId(Long doctorId);
-    List<Appointment> findByStatus(AppointmentStatus status);
-    List<Appointment> findByAppointmentDateTimeBetween(
-            LocalDateTime start,
-            LocalDateTime end
+    // Listes projetées directement en DTO : doctor_id est lu sans jointure ni chargement du médecin
+    @Query("SELECT new com.medical.appointmentsservice.dto.AppointmentDTO(" +
+            "a.id, a.doctor.id, a.patientId, a.appointmentDateTime, a.reason, a.status, a.notes) " +
+            "FROM Appointment a WHERE a.patientId = :patientId " +
+            "AND a.appointmentDateTime BETWEEN :start AND :end ORDER BY a.appointmentDateTime")
+    List<AppointmentDTO> findDtosByPatientIdAndAppointmentDateTimeBetween(
+            @Param("patientId") Long patientId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    @Query("SELECT new com.medical.appointmentsservice.dto.AppointmentDTO(" +
+            "a.id, a.doctor.id, a.patientId, a.appointmentDateTime, a.reason, a.status, a.notes) " +
+            "FROM Appointment a WHERE a.status = :status " +
+            "AND a.appointmentDateTime BETWEEN :start AND :end ORDER BY a.appointmentDateTime")
+    List<AppointmentDTO> findDtosByStatusAndAppointmentDateTimeBetween(
+            @Param("status") AppointmentStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
     );
-    List<Appointment> findByDoctorIdAndAppointmentDateTimeBetween(
+
+    @Query("SELECT new com.medical.appointmentsservice.dto.AppointmentDTO(" +
+            "a.id, a.doctor.id, a.patientId, a.appointmentDateTime, a.reason, a.status, a.notes) " +
+            "FROM Appointment a WHERE a.doctor.id = :doctorId AND a.id > :after ORDER BY a.id")
+    List<AppointmentDTO> findDtosByDoctorIdAfter(
+            @Param("doctorId") Long doctorId,
+            @Param("after") Long after,
+            Pageable pageable
+    );
+
+    // Vérification de conflit sans charger les entités
+    boolean existsByDoctorIdAndStatusNotAndAppointmentDateTimeBetween(
             Long doctorId,
+            AppointmentStatus status,
             LocalDateTime start,
             LocalDateTime end
     );
-}
\ No newline at end of file
+
+    // Créneaux occupés (médecin + horaire) pour l'index en mémoire
+    @Query("SELECT a.doctor.id AS doctorId, a.appointmentDateTime AS appointmentDateTime " +
+            "FROM Appointment a WHERE a.status <> :status AND a.appointmentDateTime >= :from")
+    List<SlotView> findSlotsByStatusNotFrom(
+            @Param("status") AppointmentStatus status,
+            @Param("from") LocalDateTime from
+    );
+
+    // Créneaux occupés de plusieurs médecins sur une fenêtre (lot de réservations, disponibilités)
+    @Query("SELECT a.doctor.id AS doctorId, a.appointmentDateTime AS appointmentDateTime " +
+            "FROM Appointment a WHERE a.doctor.id IN :doctorIds AND a.status <> :status " +
+            "AND a.appointmentDateTime BETWEEN :start AND :end")
+    List<SlotView> findSlotsByDoctorIdInAndStatusNotBetween(
+            @Param("doctorIds") Collection<Long> doctorIds,
+            @Param("status") AppointmentStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // RDV antérieurs à la colonne booked_slot, à compléter
+    @Query("SELECT a.id FROM Appointment a WHERE a.bookedSlot IS NULL AND a.status <> :status " +
+            "AND a.id > :after ORDER BY a.id")
+    List<Long> findIdsWithoutBookedSlot(
+            @Param("status") AppointmentStatus status,
+            @Param("after") Long after,
+            Pageable pageable
+    );
+
+    @Modifying
+    @Query("UPDATE Appointment a SET a.bookedSlot = a.appointmentDateTime " +
+            "WHERE a.id IN :ids AND a.bookedSlot IS NULL")
+    int fillBookedSlot(@Param("ids") Collection<Long> ids);
+
+    interface SlotView {
+        Long getDoctorId();
+        LocalDateTime getAppointmentDateTime();
+    }
+}
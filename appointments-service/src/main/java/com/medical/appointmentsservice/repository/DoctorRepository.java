@@ -1,14 +1,34 @@
 package com.medical.appointmentsservice.repository;
 
+import com.medical.appointmentsservice.config.CacheConfig;
 import com.medical.appointmentsservice.entity.Doctor;
+import jakarta.persistence.LockModeType;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+    List<Doctor> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
     List<Doctor> findBySpecialization(String specialization);
+
+    @Cacheable(cacheNames = CacheConfig.DOCTOR_IDS_BY_SPECIALIZATION, key = "#p0")
+    @Query("SELECT d.id FROM Doctor d WHERE d.specialization = :specialization ORDER BY d.id")
+    List<Long> findIdsBySpecialization(@Param("specialization") String specialization);
+
+    // SELECT ... FOR UPDATE jusqu'à la fin de la transaction : les réservations d'un même médecin
+    // sont sérialisées entre toutes les instances (ordre croissant des IDs contre les interblocages)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Doctor d WHERE d.id IN :ids ORDER BY d.id")
+    List<Doctor> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
     Optional<Doctor> findByEmail(String email);
     List<Doctor> findByLastNameContainingIgnoreCase(String lastName);
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.medical.appointmentsservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Place appointments_seq au-dessus du plus grand id existant : les RDV créés avant le passage
+ * à la séquence (IDENTITY) ne doivent pas voir leur clé réattribuée. Exécuté avant l'ouverture
+ * du service (les blocs de 50 ids ne sont pas encore distribués dans cette instance).
+ * La séquence n'est jamais reculée : saut ponctuel via l'incrément, puis incrément rétabli,
+ * ce qui reste sûr si plusieurs instances démarrent en même temps.
+ */
+@Component
+@Slf4j
+public class AppointmentSequenceSeeder {
+
+    static final String SEQUENCE = "appointments_seq";
+    // Doit correspondre à allocationSize de Appointment.id (optimiseur pooled)
+    static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void seed() {
+        try {
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM appointments", Long.class);
+            if (maxId == 0) {
+                return;
+            }
+            String nextValue = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect().getSequenceSupport()
+                    .getSequenceNextValString(SEQUENCE);
+            long next = jdbcTemplate.queryForObject(nextValue, Long.class);
+            // Bloc pooled = [valeur - 49, valeur] : déjà au-dessus des ids existants
+            if (next - ALLOCATION_SIZE + 1 > maxId) {
+                return;
+            }
+
+            // Pas d'au moins 50 pendant le saut : les blocs des autres instances restent disjoints
+            long step = Math.max(maxId + ALLOCATION_SIZE - next, ALLOCATION_SIZE);
+            jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " INCREMENT BY " + step);
+            try {
+                jdbcTemplate.queryForObject(nextValue, Long.class);
+            } finally {
+                jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " INCREMENT BY " + ALLOCATION_SIZE);
+            }
+            log.info("Séquence {} avancée au-delà de l'id {}", SEQUENCE, maxId);
+        } catch (Exception e) {
+            // Ne doit pas empêcher le démarrage ; un doublon de clé sera refusé par la base
+            log.error("Initialisation de la séquence {} impossible : {}", SEQUENCE, e.getMessage(), e);
+        }
+    }
+}
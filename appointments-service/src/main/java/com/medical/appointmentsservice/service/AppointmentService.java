@@ -3,19 +3,28 @@ package com.medical.appointmentsservice.service;
 
 import com.medical.appointmentsservice.dto.*;
 import com.medical.appointmentsservice.entity.*;
+import com.medical.appointmentsservice.exception.DoctorNotFoundException;
+import com.medical.appointmentsservice.exception.SlotConflictException;
 import com.medical.appointmentsservice.repository.*;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 @Slf4j
+@Timed(value = "appointments.service", histogram = true)
 public class AppointmentService {
 
     @Autowired
@@ -24,29 +33,67 @@ public class AppointmentService {
     @Autowired
     private DoctorRepository doctorRepository;
 
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private DoctorSlotIndex slotIndex;
+
+    @Autowired
+    private BookingLocks bookingLocks;
+
+    @Autowired
+    private PatientDirectory patientDirectory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Value("${mes-config-ms.appointments-last}")
     private int appointmentsLastDays;
 
+    // Hors transaction : l'appel à ms-patients (jusqu'à 800 ms) ne doit pas retenir de connexion ;
+    // la transaction n'est ouverte qu'une fois le verrou du médecin obtenu
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AppointmentDTO createAppointment(AppointmentRequest request) {
-        Doctor doctor = doctorRepository.findById(request.getDoctorId())
-                .orElseThrow(() -> new RuntimeException("Médecin non trouvé"));
+        // Médecin lu depuis le cache : pas d'accès base pour les horaires
+        DoctorDTO doctor = doctorService.getDoctorById(request.getDoctorId());
+        // Patient vérifié auprès de ms-patients (cache, hors verrou)
+        patientDirectory.requireExisting(request.getPatientId());
 
-        // Vérifier la disponibilité
-        if (!isTimeAvailable(doctor, request.getAppointmentDateTime())) {
-            throw new RuntimeException("Créneau non disponible");
-        }
-
-        Appointment appointment = new Appointment();
-        appointment.setDoctor(doctor);
-        appointment.setPatientId(request.getPatientId());
-        appointment.setAppointmentDateTime(request.getAppointmentDateTime());
-        appointment.setReason(request.getReason());
-        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        // Vérification + réservation atomiques pour ce médecin, dans cette instance et entre instances
+        return bookingLocks.withDoctorLock(doctor.getId(),
+                () -> transactionTemplate.execute(status -> book(doctor, request)));
+    }
 
-        Appointment savedAppointment = appointmentRepository.save(appointment);
-        log.info("RDV créé : {} pour patient {}", savedAppointment.getId(), request.getPatientId());
+    // Même découpage que createAppointment : vérifications distantes avant la transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AppointmentBatchResponse createAppointments(List<AppointmentRequest> requests) {
+        Set<Long> doctorIds = requests.stream()
+                .map(AppointmentRequest::getDoctorId)
+                .collect(Collectors.toSet());
+        Map<Long, DoctorDTO> doctors = new HashMap<>();
+        for (Long doctorId : doctorIds) {
+            try {
+                doctors.put(doctorId, doctorService.getDoctorById(doctorId));
+            } catch (DoctorNotFoundException e) {
+                log.warn("Lot de RDV : médecin {} introuvable", doctorId);
+            }
+        }
+        // Patients inconnus du lot, vérifiés en un seul appel
+        Set<Long> unknownPatients = patientDirectory.findUnknown(requests.stream()
+                .map(AppointmentRequest::getPatientId)
+                .collect(Collectors.toSet()));
 
-        return convertToDTO(savedAppointment);
+        return bookingLocks.withDoctorLocks(doctorIds, () -> {
+            try {
+                return transactionTemplate.execute(status -> bookBatch(requests, doctors, unknownPatients));
+            } catch (SlotConflictException e) {
+                // Conflit révélé à l'insertion (RDV écrit hors verrou, doublon hérité) : le lot est annulé
+                // puis rejoué élément par élément, seuls les créneaux en cause sont rejetés
+                log.warn("Lot de RDV : conflit à l'insertion, reprise élément par élément");
+                return bookOneByOne(requests, doctors, unknownPatients);
+            }
+        });
     }
 
     public AppointmentDTO getAppointmentById(Long id) {
@@ -59,38 +106,53 @@ public class AppointmentService {
         LocalDateTime startDate = LocalDateTime.now().minusDays(appointmentsLastDays);
         LocalDateTime endDate = LocalDateTime.now().plusMonths(3);
 
-        return appointmentRepository.findByPatientId(patientId)
-                .stream()
-                .filter(a -> a.getAppointmentDateTime().isAfter(startDate) &&
-                        a.getAppointmentDateTime().isBefore(endDate))
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return appointmentRepository.findDtosByPatientIdAndAppointmentDateTimeBetween(patientId, startDate, endDate);
     }
 
-    public List<AppointmentDTO> getAppointmentsByDoctor(Long doctorId) {
-        return appointmentRepository.findByDoctorId(doctorId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<AppointmentDTO> getAppointmentsByDoctor(Long doctorId, long after, int limit) {
+        int pageSize = CursorPage.pageSize(limit);
+        List<AppointmentDTO> appointments = appointmentRepository
+                .findDtosByDoctorIdAfter(doctorId, after, PageRequest.ofSize(pageSize));
+        return CursorPage.of(appointments, pageSize, AppointmentDTO::getId);
     }
 
     public List<AppointmentDTO> getUpcomingAppointments() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime nextMonth = now.plusMonths(1);
 
-        return appointmentRepository.findByAppointmentDateTimeBetween(now, nextMonth)
-                .stream()
-                .filter(a -> a.getStatus() == AppointmentStatus.SCHEDULED)
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return appointmentRepository.findDtosByStatusAndAppointmentDateTimeBetween(
+                AppointmentStatus.SCHEDULED, now, nextMonth);
     }
 
     public AppointmentDTO updateAppointmentStatus(Long id, String status) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rendez-vous non trouvé"));
 
-        appointment.setStatus(AppointmentStatus.valueOf(status));
-        Appointment updatedAppointment = appointmentRepository.save(appointment);
+        AppointmentStatus previousStatus = appointment.getStatus();
+        AppointmentStatus newStatus = AppointmentStatus.valueOf(status);
+        Long doctorId = appointment.getDoctor().getId();
+
+        // Un RDV réactivé reprend son créneau : même vérification qu'une nouvelle réservation
+        if (previousStatus == AppointmentStatus.CANCELLED && newStatus != AppointmentStatus.CANCELLED) {
+            return bookingLocks.withDoctorLock(doctorId, () -> {
+                doctorRepository.lockAllByIdIn(List.of(doctorId));
+                if (!slotIndex.isFree(doctorId, appointment.getAppointmentDateTime())) {
+                    throw new SlotConflictException("Créneau non disponible");
+                }
+                appointment.setStatus(newStatus);
+                Appointment updatedAppointment = saveBooking(appointment);
+                slotIndex.reserve(doctorId, appointment.getAppointmentDateTime());
+                return convertToDTO(updatedAppointment);
+            });
+        }
+
+        appointment.setStatus(newStatus);
+        Appointment updatedAppointment = saveBooking(appointment);
+
+        // Un RDV annulé libère son créneau
+        if (previousStatus != AppointmentStatus.CANCELLED && newStatus == AppointmentStatus.CANCELLED) {
+            slotIndex.release(doctorId, appointment.getAppointmentDateTime());
+        }
 
         return convertToDTO(updatedAppointment);
     }
@@ -100,25 +162,193 @@ public class AppointmentService {
     }
 
     public void deleteAppointment(Long id) {
-        appointmentRepository.deleteById(id);
+        appointmentRepository.findById(id).ifPresent(appointment -> {
+            appointmentRepository.delete(appointment);
+            if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                slotIndex.release(appointment.getDoctor().getId(), appointment.getAppointmentDateTime());
+            }
+        });
         log.info("Rendez-vous supprimé : {}", id);
     }
 
-    private boolean isTimeAvailable(Doctor doctor, LocalDateTime dateTime) {
-        LocalTime requestedTime = dateTime.toLocalTime();
+    // Sous le verrou du médecin et dans la transaction de réservation
+    private AppointmentDTO book(DoctorDTO doctor, AppointmentRequest request) {
+        doctorRepository.lockAllByIdIn(List.of(doctor.getId()));
+        if (!isTimeAvailable(doctor, request.getAppointmentDateTime())) {
+            throw new SlotConflictException("Créneau non disponible");
+        }
 
-        if (requestedTime.isBefore(doctor.getAvailableFrom()) ||
-                requestedTime.isAfter(doctor.getAvailableTo())) {
+        Appointment savedAppointment = saveBooking(newAppointment(doctor, request));
+        slotIndex.reserve(doctor.getId(), savedAppointment.getAppointmentDateTime());
+        log.info("RDV créé : {} pour patient {}", savedAppointment.getId(), request.getPatientId());
+
+        return convertToDTO(savedAppointment);
+    }
+
+    // Lot validé sur les créneaux lus en base en une seule requête, puis inséré en groupe
+    private AppointmentBatchResponse bookBatch(List<AppointmentRequest> requests,
+                                               Map<Long, DoctorDTO> doctors,
+                                               Set<Long> unknownPatients) {
+        AppointmentBatchItemResult[] results = new AppointmentBatchItemResult[requests.size()];
+        List<Appointment> appointments = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        Map<Long, long[]> bookedSlots = lockAndLoadBookedSlots(requests, doctors);
+
+        // Chaque créneau retenu est ajouté aux créneaux occupés : les éléments suivants du lot le voient pris
+        for (int i = 0; i < requests.size(); i++) {
+            AppointmentRequest request = requests.get(i);
+            DoctorDTO doctor = doctors.get(request.getDoctorId());
+            String rejection = rejection(request, doctor, unknownPatients);
+            if (rejection == null) {
+                long[] slots = bookedSlots.getOrDefault(doctor.getId(), new long[0]);
+                long slot = DoctorSlotIndex.toEpochMinute(request.getAppointmentDateTime());
+                if (DoctorSlotIndex.isFree(slots, slot)) {
+                    bookedSlots.put(doctor.getId(), DoctorSlotIndex.with(slots, slot));
+                    appointments.add(newAppointment(doctor, request));
+                    indexes.add(i);
+                } else {
+                    rejection = "Créneau non disponible";
+                }
+            }
+            if (rejection != null) {
+                results[i] = AppointmentBatchItemResult.rejected(i, rejection);
+            }
+        }
+
+        List<Appointment> savedAppointments = saveBookings(appointments);
+        for (int i = 0; i < savedAppointments.size(); i++) {
+            Appointment savedAppointment = savedAppointments.get(i);
+            slotIndex.reserve(savedAppointment.getDoctor().getId(), savedAppointment.getAppointmentDateTime());
+            results[indexes.get(i)] = AppointmentBatchItemResult.created(indexes.get(i), convertToDTO(savedAppointment));
+        }
+        return batchResponse(results);
+    }
+
+    // Repli : une transaction par élément, pour isoler les conflits détectés par la base
+    private AppointmentBatchResponse bookOneByOne(List<AppointmentRequest> requests,
+                                                  Map<Long, DoctorDTO> doctors,
+                                                  Set<Long> unknownPatients) {
+        AppointmentBatchItemResult[] results = new AppointmentBatchItemResult[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            int index = i;
+            AppointmentRequest request = requests.get(i);
+            DoctorDTO doctor = doctors.get(request.getDoctorId());
+            String rejection = rejection(request, doctor, unknownPatients);
+            if (rejection != null) {
+                results[i] = AppointmentBatchItemResult.rejected(i, rejection);
+                continue;
+            }
+            try {
+                results[i] = transactionTemplate.execute(status ->
+                        AppointmentBatchItemResult.created(index, book(doctor, request)));
+            } catch (SlotConflictException e) {
+                results[i] = AppointmentBatchItemResult.rejected(i, "Créneau non disponible");
+            }
+        }
+        return batchResponse(results);
+    }
+
+    // Verrouille les médecins du lot puis lit leurs créneaux occupés sur la fenêtre du lot
+    private Map<Long, long[]> lockAndLoadBookedSlots(List<AppointmentRequest> requests, Map<Long, DoctorDTO> doctors) {
+        if (doctors.isEmpty()) {
+            return new HashMap<>();
+        }
+        doctorRepository.lockAllByIdIn(doctors.keySet());
+        List<LocalDateTime> dateTimes = requests.stream()
+                .filter(request -> doctors.containsKey(request.getDoctorId()))
+                .map(AppointmentRequest::getAppointmentDateTime)
+                .toList();
+        if (dateTimes.isEmpty()) {
+            return new HashMap<>();
+        }
+        return slotIndex.loadBookedSlots(doctors.keySet(),
+                Collections.min(dateTimes), Collections.max(dateTimes));
+    }
+
+    private String rejection(AppointmentRequest request, DoctorDTO doctor, Set<Long> unknownPatients) {
+        if (doctor == null) {
+            return "Médecin non trouvé";
+        }
+        if (unknownPatients.contains(request.getPatientId())) {
+            return "Patient non trouvé";
+        }
+        if (!isWithinOpeningHours(doctor, request.getAppointmentDateTime())) {
+            return "Créneau non disponible";
+        }
+        return null;
+    }
+
+    private AppointmentBatchResponse batchResponse(AppointmentBatchItemResult[] results) {
+        int created = (int) Arrays.stream(results).filter(AppointmentBatchItemResult::isCreated).count();
+        log.info("Lot de RDV : {} créés, {} rejetés", created, results.length - created);
+        return new AppointmentBatchResponse(created, results.length - created, Arrays.asList(results));
+    }
+
+    // Filet de sécurité : contrainte unique (doctor_id, booked_slot) sur les débuts identiques
+    private Appointment saveBooking(Appointment appointment) {
+        try {
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            if (!isSlotConflict(e)) {
+                throw e;
+            }
+            log.warn("Conflit de créneau pour le médecin {} à {}",
+                    appointment.getDoctor().getId(), appointment.getAppointmentDateTime());
+            throw new SlotConflictException("Créneau non disponible");
+        }
+    }
+
+    // Insertions groupées (hibernate.jdbc.batch_size) ; un conflit en base annule la transaction du lot
+    private List<Appointment> saveBookings(List<Appointment> appointments) {
+        try {
+            List<Appointment> savedAppointments = appointmentRepository.saveAll(appointments);
+            appointmentRepository.flush();
+            return savedAppointments;
+        } catch (DataIntegrityViolationException e) {
+            if (!isSlotConflict(e)) {
+                throw e;
+            }
+            log.warn("Conflit de créneau lors de l'insertion d'un lot de {} RDV", appointments.size());
+            throw new SlotConflictException("Créneau non disponible");
+        }
+    }
+
+    // Seule la contrainte de créneau signifie un conflit (409) ; clé primaire, clé étrangère... restent des erreurs
+    private static boolean isSlotConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause instanceof ConstraintViolationException violation
+                    ? violation.getConstraintName() : cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(Appointment.SLOT_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Appointment newAppointment(DoctorDTO doctor, AppointmentRequest request) {
+        Appointment appointment = new Appointment();
+        // Référence (proxy) : seule la clé étrangère est nécessaire à l'insertion
+        appointment.setDoctor(doctorRepository.getReferenceById(doctor.getId()));
+        appointment.setPatientId(request.getPatientId());
+        appointment.setAppointmentDateTime(request.getAppointmentDateTime());
+        appointment.setReason(request.getReason());
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        return appointment;
+    }
+
+    private boolean isTimeAvailable(DoctorDTO doctor, LocalDateTime dateTime) {
+        if (!isWithinOpeningHours(doctor, dateTime)) {
             return false;
         }
 
-        // Vérifier les conflits d'horaires (RDV de 30 min)
-        LocalDateTime startWindow = dateTime.minusMinutes(15);
-        LocalDateTime endWindow = dateTime.plusMinutes(45);
+        // Conflits d'horaires (RDV de 30 min) : index en mémoire, confirmé en base
+        return slotIndex.isFree(doctor.getId(), dateTime);
+    }
 
-        return appointmentRepository.findByDoctorIdAndAppointmentDateTimeBetween(
-                doctor.getId(), startWindow, endWindow
-        ).isEmpty();
+    private boolean isWithinOpeningHours(DoctorDTO doctor, LocalDateTime dateTime) {
+        LocalTime requestedTime = dateTime.toLocalTime();
+        return !requestedTime.isBefore(doctor.getAvailableFrom())
+                && !requestedTime.isAfter(doctor.getAvailableTo());
     }
 
     private AppointmentDTO convertToDTO(Appointment appointment) {
@@ -0,0 +1,150 @@
+package com.medical.appointmentsservice.service;
+
+import com.medical.appointmentsservice.dto.AvailableSlotDTO;
+import com.medical.appointmentsservice.dto.DoctorDTO;
+import com.medical.appointmentsservice.exception.InvalidAvailabilitySearchException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Recherche des prochains créneaux libres (30 min) d'une spécialité.
+ * <p>
+ * Médecins lus dans le cache ; chaque médecin fournit ses créneaux libres dans l'ordre chronologique,
+ * à la demande, et un tas fusionne ces suites jusqu'à "limit" créneaux. Les candidats viennent de
+ * {@link DoctorSlotIndex}, qui ne voit pas tout ce que réservent les autres instances : un médecin
+ * arrivant en tête du tas est confirmé en base (une requête sur la période, une seule fois par médecin)
+ * avant que ses créneaux soient retenus. Les médecins jamais en tête ne coûtent aucune requête.
+ */
+@Service
+@Timed(value = "appointments.service", histogram = true)
+public class AvailabilityService {
+
+    public static final int MAX_LIMIT = 100;
+    public static final Duration MAX_RANGE = Duration.ofDays(31);
+
+    private static final long SLOT_MINUTES = 30;
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private DoctorSlotIndex doctorSlotIndex;
+
+    public List<AvailableSlotDTO> findFreeSlots(String specialization, LocalDateTime from, LocalDateTime to, int limit) {
+        LocalDateTime start = from.isAfter(LocalDateTime.now()) ? from : LocalDateTime.now();
+        if (!to.isAfter(from)) {
+            throw new InvalidAvailabilitySearchException("La fin de la période doit être postérieure au début");
+        }
+        if (Duration.between(from, to).compareTo(MAX_RANGE) > 0) {
+            throw new InvalidAvailabilitySearchException("Période limitée à " + MAX_RANGE.toDays() + " jours");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidAvailabilitySearchException("limit doit être compris entre 1 et " + MAX_LIMIT);
+        }
+        if (!start.isBefore(to)) {
+            throw new InvalidAvailabilitySearchException("La période demandée est déjà écoulée");
+        }
+
+        long startMinute = DoctorSlotIndex.toEpochMinute(start);
+        long endMinute = DoctorSlotIndex.toEpochMinute(to);
+        PriorityQueue<FreeSlots> heap = new PriorityQueue<>(Comparator
+                .comparingLong((FreeSlots slots) -> slots.next)
+                .thenComparing(slots -> slots.doctor.getId()));
+        for (DoctorDTO doctor : doctorService.getDoctorsBySpecialization(specialization)) {
+            FreeSlots slots = FreeSlots.of(doctor, doctorSlotIndex.bookedSlots(doctor.getId()), endMinute);
+            if (slots != null && slots.advance(startMinute)) {
+                heap.add(slots);
+            }
+        }
+
+        List<AvailableSlotDTO> result = new ArrayList<>(limit);
+        while (result.size() < limit && !heap.isEmpty()) {
+            FreeSlots slots = heap.poll();
+            if (!slots.confirmed) {
+                // La base fait foi : créneaux occupés relus, puis reprise à partir du candidat courant
+                slots.confirm(doctorSlotIndex.loadBookedSlots(List.of(slots.doctor.getId()), start, to)
+                        .getOrDefault(slots.doctor.getId(), new long[0]));
+                if (slots.advance(slots.next)) {
+                    heap.add(slots);
+                }
+                continue;
+            }
+            LocalDateTime slotStart = toDateTime(slots.next);
+            result.add(new AvailableSlotDTO(slots.doctor.getId(), slots.doctor.getFirstName(),
+                    slots.doctor.getLastName(), slotStart, slotStart.plusMinutes(SLOT_MINUTES)));
+            if (slots.advance(slots.next + SLOT_MINUTES)) {
+                heap.add(slots);
+            }
+        }
+        return result;
+    }
+
+    private static LocalDateTime toDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    // Créneaux libres d'un médecin : début aligné sur availableFrom, fin au plus tard à availableTo
+    private static final class FreeSlots {
+
+        private final DoctorDTO doctor;
+        private long[] booked;
+        private boolean confirmed;
+        private final long firstStart;
+        private final long lastStart;
+        private final long endMinute;
+        private long next;
+
+        private FreeSlots(DoctorDTO doctor, long[] booked, long firstStart, long lastStart, long endMinute) {
+            this.doctor = doctor;
+            this.booked = booked;
+            this.firstStart = firstStart;
+            this.lastStart = lastStart;
+            this.endMinute = endMinute;
+        }
+
+        static FreeSlots of(DoctorDTO doctor, long[] booked, long endMinute) {
+            if (doctor.getAvailableFrom() == null || doctor.getAvailableTo() == null) {
+                return null;
+            }
+            long firstStart = doctor.getAvailableFrom().toSecondOfDay() / 60;
+            long lastStart = doctor.getAvailableTo().toSecondOfDay() / 60 - SLOT_MINUTES;
+            return lastStart >= firstStart ? new FreeSlots(doctor, booked, firstStart, lastStart, endMinute) : null;
+        }
+
+        void confirm(long[] bookedInDatabase) {
+            booked = bookedInDatabase;
+            confirmed = true;
+        }
+
+        // Premier créneau libre commençant à "candidate" ou après ; false si la période est épuisée
+        boolean advance(long candidate) {
+            while (candidate < endMinute) {
+                long day = Math.floorDiv(candidate, MINUTES_PER_DAY);
+                long minuteOfDay = candidate - day * MINUTES_PER_DAY;
+                if (minuteOfDay < firstStart) {
+                    candidate = day * MINUTES_PER_DAY + firstStart;
+                } else if (minuteOfDay > lastStart) {
+                    candidate = (day + 1) * MINUTES_PER_DAY + firstStart;
+                } else if ((minuteOfDay - firstStart) % SLOT_MINUTES != 0) {
+                    candidate += SLOT_MINUTES - (minuteOfDay - firstStart) % SLOT_MINUTES;
+                } else if (DoctorSlotIndex.isFree(booked, candidate)) {
+                    next = candidate;
+                    return true;
+                } else {
+                    candidate += SLOT_MINUTES;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.medical.appointmentsservice.service;
+
+import com.medical.appointmentsservice.entity.AppointmentStatus;
+import com.medical.appointmentsservice.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Renseigne booked_slot pour les RDV créés avant son introduction, afin que la contrainte
+ * unique (doctor_id, booked_slot) les protège aussi. Une page par transaction ; plusieurs
+ * instances peuvent tourner en même temps (mise à jour limitée aux lignes encore à NULL).
+ * Les doublons hérités (même médecin, même heure) sont laissés à NULL et signalés.
+ */
+@Component
+@Slf4j
+public class BookedSlotBackfill {
+
+    private static final int PAGE_SIZE = 500;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            long total = 0;
+            long after = 0;
+            List<Long> ids;
+            do {
+                ids = appointmentRepository.findIdsWithoutBookedSlot(
+                        AppointmentStatus.CANCELLED, after, PageRequest.ofSize(PAGE_SIZE));
+                if (!ids.isEmpty()) {
+                    total += fill(ids);
+                    after = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == PAGE_SIZE);
+            if (total > 0) {
+                log.info("Créneaux réservés renseignés pour {} RDV existants", total);
+            }
+        } catch (Exception e) {
+            // Ne doit pas empêcher le démarrage : reprise au prochain redémarrage
+            log.error("Renseignement des créneaux réservés interrompu : {}", e.getMessage(), e);
+        }
+    }
+
+    private int fill(List<Long> ids) {
+        try {
+            return transactionTemplate.execute(status -> appointmentRepository.fillBookedSlot(ids));
+        } catch (DataIntegrityViolationException e) {
+            // Doublon dans la page : ligne par ligne pour isoler les RDV en conflit
+            int filled = 0;
+            for (Long id : ids) {
+                try {
+                    filled += transactionTemplate.execute(status -> appointmentRepository.fillBookedSlot(List.of(id)));
+                } catch (DataIntegrityViolationException conflict) {
+                    log.warn("RDV {} en conflit avec un RDV existant du même médecin à la même heure : à régulariser", id);
+                }
+            }
+            return filled;
+        }
+    }
+}
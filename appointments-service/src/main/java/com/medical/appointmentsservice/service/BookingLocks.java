@@ -0,0 +1,72 @@
+package com.medical.appointmentsservice.service;
+
+import com.medical.appointmentsservice.exception.SlotConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Verrous de réservation répartis par médecin (lock striping) : deux réservations
+ * pour le même médecin sont sérialisées, celles de médecins différents restent parallèles.
+ */
+@Component
+public class BookingLocks {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    @Value("${appointments.booking.lock-timeout-ms:2000}")
+    private long lockTimeoutMs;
+
+    public BookingLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withDoctorLock(Long doctorId, Supplier<T> action) {
+        return withDoctorLocks(List.of(doctorId), action);
+    }
+
+    // Les verrous sont pris dans l'ordre croissant des segments pour éviter les interblocages
+    public <T> T withDoctorLocks(Collection<Long> doctorIds, Supplier<T> action) {
+        int[] stripes = doctorIds.stream()
+                .mapToInt(BookingLocks::stripe)
+                .distinct()
+                .sorted()
+                .toArray();
+        int acquired = 0;
+        try {
+            for (int stripe : stripes) {
+                acquire(locks[stripe]);
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    private void acquire(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SlotConflictException("Agenda du médecin occupé, réessayez");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlotConflictException("Réservation interrompue");
+        }
+    }
+
+    private static int stripe(Long doctorId) {
+        return Math.floorMod(doctorId.hashCode(), STRIPES);
+    }
+}
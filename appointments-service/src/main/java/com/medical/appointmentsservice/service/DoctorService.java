@@ -1,25 +1,42 @@
 package com.medical.appointmentsservice.service;
 
+import com.medical.appointmentsservice.config.CacheConfig;
+import com.medical.appointmentsservice.dto.CursorPage;
 import com.medical.appointmentsservice.dto.DoctorDTO;
 import com.medical.appointmentsservice.entity.Doctor;
+import com.medical.appointmentsservice.exception.DoctorNotFoundException;
 import com.medical.appointmentsservice.repository.DoctorRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 @Slf4j
+@Timed(value = "appointments.service", histogram = true)
 public class DoctorService {
 
     @Autowired
     private DoctorRepository doctorRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @CacheEvict(cacheNames = CacheConfig.DOCTOR_IDS_BY_SPECIALIZATION, allEntries = true)
     public DoctorDTO createDoctor(DoctorDTO doctorDTO) {
         Doctor doctor = new Doctor();
         doctor.setFirstName(doctorDTO.getFirstName());
@@ -37,29 +54,35 @@ public class DoctorService {
         return convertToDTO(savedDoctor);
     }
 
+    @Cacheable(cacheNames = CacheConfig.DOCTORS, key = "#p0")
     public DoctorDTO getDoctorById(Long id) {
-        Doctor doctor = doctorRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Médecin non trouvé"));
-        return convertToDTO(doctor);
+        return loadDoctor(id);
     }
 
-    public List<DoctorDTO> getAllDoctors() {
-        return doctorRepository.findAll()
+    public CursorPage<DoctorDTO> getAllDoctors(long after, int limit) {
+        int pageSize = CursorPage.pageSize(limit);
+        List<DoctorDTO> doctors = doctorRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.ofSize(pageSize))
                 .stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        return CursorPage.of(doctors, pageSize, DoctorDTO::getId);
     }
 
+    // Liste d'IDs en cache par spécialité, puis chaque médecin via le cache "doctors"
     public List<DoctorDTO> getDoctorsBySpecialization(String specialization) {
-        return doctorRepository.findBySpecialization(specialization)
+        Cache doctors = cacheManager.getCache(CacheConfig.DOCTORS);
+        return doctorRepository.findIdsBySpecialization(specialization)
                 .stream()
-                .map(this::convertToDTO)
+                .map(id -> cachedDoctor(doctors, id))
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    @Caching(put = @CachePut(cacheNames = CacheConfig.DOCTORS, key = "#p0"),
+            evict = @CacheEvict(cacheNames = CacheConfig.DOCTOR_IDS_BY_SPECIALIZATION, allEntries = true))
     public DoctorDTO updateDoctor(Long id, DoctorDTO doctorDTO) {
         Doctor doctor = doctorRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Médecin non trouvé"));
+                .orElseThrow(() -> new DoctorNotFoundException(id));
 
         doctor.setFirstName(doctorDTO.getFirstName());
         doctor.setLastName(doctorDTO.getLastName());
@@ -71,11 +94,34 @@ public class DoctorService {
         return convertToDTO(updatedDoctor);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCTORS, key = "#p0"),
+            @CacheEvict(cacheNames = CacheConfig.DOCTOR_IDS_BY_SPECIALIZATION, allEntries = true)
+    })
     public void deleteDoctor(Long id) {
         doctorRepository.deleteById(id);
         log.info("Médecin supprimé : {}", id);
     }
 
+    // Liste d'IDs encore en cache pour un médecin supprimé entre-temps : médecin ignoré
+    private DoctorDTO cachedDoctor(Cache doctors, Long id) {
+        try {
+            return doctors.get(id, () -> loadDoctor(id));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof DoctorNotFoundException) {
+                log.debug("Médecin {} supprimé, ignoré", id);
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private DoctorDTO loadDoctor(Long id) {
+        Doctor doctor = doctorRepository.findById(id)
+                .orElseThrow(() -> new DoctorNotFoundException(id));
+        return convertToDTO(doctor);
+    }
+
     private DoctorDTO convertToDTO(Doctor doctor) {
         return new DoctorDTO(
                 doctor.getId(),
@@ -0,0 +1,244 @@
+package com.medical.appointmentsservice.service;
+
+import com.medical.appointmentsservice.entity.AppointmentStatus;
+import com.medical.appointmentsservice.repository.AppointmentRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index en mémoire des créneaux occupés, par médecin : cache de rejet et de disponibilités.
+ * <p>
+ * Chaque médecin est associé à un tableau trié (copy-on-write) des heures de début
+ * de ses RDV non annulés, exprimées en minutes epoch. La base fait foi : l'index permet seulement
+ * de refuser sans aller-retour un créneau qu'il sait occupé, et de présélectionner les candidats
+ * de la recherche de disponibilités, confirmés ensuite en base. Un créneau libre coûte donc
+ * toujours une requête. L'index est chargé au démarrage à partir d'aujourd'hui, puis reconstruit
+ * périodiquement : les créneaux passés en sortent et les réservations ou annulations des autres
+ * instances y entrent.
+ */
+@Component
+@Slf4j
+public class DoctorSlotIndex {
+
+    // Même fenêtre que l'ancienne requête de conflit (RDV de 30 min)
+    private static final long CONFLICT_BEFORE_MINUTES = 15;
+    private static final long CONFLICT_AFTER_MINUTES = 45;
+    private static final long[] EMPTY = new long[0];
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    // Remplacée en bloc à chaque rechargement
+    private volatile Map<Long, long[]> slotsByDoctor = new ConcurrentHashMap<>();
+
+    // Avant cet horizon (minutes epoch), la base reste la seule référence
+    private volatile long horizon = Long.MAX_VALUE;
+
+    @PostConstruct
+    public void warmUp() {
+        int count = reload();
+        log.info("Index des créneaux chargé : {} RDV pour {} médecins", count, slotsByDoctor.size());
+    }
+
+    /**
+     * Reconstruit l'index depuis la base. Une réservation validée pendant le rechargement peut en être
+     * absente jusqu'au suivant : sans effet sur la justesse, un créneau libre étant toujours vérifié en base.
+     */
+    @Scheduled(initialDelayString = "${appointments.slot-index.refresh-ms:300000}",
+            fixedDelayString = "${appointments.slot-index.refresh-ms:300000}")
+    public void refresh() {
+        try {
+            int count = reload();
+            log.debug("Index des créneaux rechargé : {} RDV pour {} médecins", count, slotsByDoctor.size());
+        } catch (Exception e) {
+            // L'index précédent reste en place ; nouvel essai au prochain passage
+            log.warn("Rechargement de l'index des créneaux impossible : {}", e.getMessage());
+        }
+    }
+
+    private int reload() {
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        Map<Long, long[]> loaded = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        int count = 0;
+
+        for (AppointmentRepository.SlotView slot :
+                appointmentRepository.findSlotsByStatusNotFrom(AppointmentStatus.CANCELLED, from)) {
+            long[] slots = loaded.getOrDefault(slot.getDoctorId(), EMPTY);
+            int size = sizes.getOrDefault(slot.getDoctorId(), 0);
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(8, size * 2));
+                loaded.put(slot.getDoctorId(), slots);
+            }
+            slots[size] = toEpochMinute(slot.getAppointmentDateTime());
+            sizes.put(slot.getDoctorId(), size + 1);
+            count++;
+        }
+
+        Map<Long, long[]> rebuilt = new ConcurrentHashMap<>();
+        loaded.forEach((doctorId, slots) -> {
+            long[] trimmed = Arrays.copyOf(slots, sizes.get(doctorId));
+            Arrays.sort(trimmed);
+            rebuilt.put(doctorId, trimmed);
+        });
+        slotsByDoctor = rebuilt;
+        horizon = toEpochMinute(from);
+        return count;
+    }
+
+    /**
+     * Décision prise par la base. L'index ne fait que court-circuiter les refus : il ne connaît que
+     * les réservations de cette instance depuis le dernier rechargement, un "libre" est donc
+     * toujours confirmé en base. Un créneau libéré par une autre instance peut être refusé
+     * jusqu'au rechargement suivant. À appeler sous le verrou du médecin.
+     */
+    public boolean isFree(Long doctorId, LocalDateTime dateTime) {
+        long slot = toEpochMinute(dateTime);
+        if (slot - CONFLICT_BEFORE_MINUTES >= horizon
+                && overlaps(slotsByDoctor.getOrDefault(doctorId, EMPTY), slot)) {
+            return false;
+        }
+        boolean free = !appointmentRepository.existsByDoctorIdAndStatusNotAndAppointmentDateTimeBetween(
+                doctorId,
+                AppointmentStatus.CANCELLED,
+                dateTime.minusMinutes(CONFLICT_BEFORE_MINUTES),
+                dateTime.plusMinutes(CONFLICT_AFTER_MINUTES)
+        );
+        if (!free && slot - CONFLICT_BEFORE_MINUTES >= horizon) {
+            log.debug("Créneau du médecin {} à {} réservé par une autre instance", doctorId, dateTime);
+        }
+        return free;
+    }
+
+    /**
+     * Créneaux occupés d'un médecin (minutes epoch, triés) : instantané à lire sans le modifier.
+     * Seuls les créneaux postérieurs à l'horizon (début du jour du dernier chargement) y figurent.
+     */
+    long[] bookedSlots(Long doctorId) {
+        return slotsByDoctor.getOrDefault(doctorId, EMPTY);
+    }
+
+    /**
+     * Créneaux occupés lus en base, qui fait foi, pour des débuts de RDV compris entre
+     * {@code firstStart} et {@code lastStart} : tout ce qui peut entrer en conflit, en une seule requête.
+     * Tableaux triés en minutes epoch, à interroger avec {@link #isFree(long[], long)}.
+     */
+    Map<Long, long[]> loadBookedSlots(Collection<Long> doctorIds, LocalDateTime firstStart, LocalDateTime lastStart) {
+        Map<Long, List<Long>> loaded = new HashMap<>();
+        for (AppointmentRepository.SlotView slot : appointmentRepository.findSlotsByDoctorIdInAndStatusNotBetween(
+                doctorIds,
+                AppointmentStatus.CANCELLED,
+                firstStart.minusMinutes(CONFLICT_BEFORE_MINUTES),
+                lastStart.plusMinutes(CONFLICT_AFTER_MINUTES))) {
+            loaded.computeIfAbsent(slot.getDoctorId(), id -> new ArrayList<>())
+                    .add(toEpochMinute(slot.getAppointmentDateTime()));
+        }
+
+        Map<Long, long[]> slotsByDoctorId = new HashMap<>();
+        loaded.forEach((doctorId, slots) -> {
+            long[] sorted = slots.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            slotsByDoctorId.put(doctorId, sorted);
+        });
+        return slotsByDoctorId;
+    }
+
+    /**
+     * Occupe le créneau immédiatement ; il est libéré si la transaction courante échoue.
+     */
+    public void reserve(Long doctorId, LocalDateTime dateTime) {
+        long slot = toEpochMinute(dateTime);
+        add(doctorId, slot);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        remove(doctorId, slot);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Libère le créneau une fois la transaction courante validée.
+     */
+    public void release(Long doctorId, LocalDateTime dateTime) {
+        long slot = toEpochMinute(dateTime);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(doctorId, slot);
+                }
+            });
+        } else {
+            remove(doctorId, slot);
+        }
+    }
+
+    private void add(Long doctorId, long slot) {
+        slotsByDoctor.compute(doctorId, (id, slots) -> with(slots != null ? slots : EMPTY, slot));
+    }
+
+    private void remove(Long doctorId, long slot) {
+        slotsByDoctor.computeIfPresent(doctorId, (id, slots) -> {
+            int i = Arrays.binarySearch(slots, slot);
+            if (i < 0) {
+                return slots;
+            }
+            if (slots.length == 1) {
+                return null;
+            }
+            long[] updated = new long[slots.length - 1];
+            System.arraycopy(slots, 0, updated, 0, i);
+            System.arraycopy(slots, i + 1, updated, i, slots.length - i - 1);
+            return updated;
+        });
+    }
+
+    // Copie triée de slots augmentée de slot
+    static long[] with(long[] slots, long slot) {
+        int i = Arrays.binarySearch(slots, slot);
+        int insertAt = i >= 0 ? i : -i - 1;
+        long[] updated = new long[slots.length + 1];
+        System.arraycopy(slots, 0, updated, 0, insertAt);
+        updated[insertAt] = slot;
+        System.arraycopy(slots, insertAt, updated, insertAt + 1, slots.length - insertAt);
+        return updated;
+    }
+
+    static boolean isFree(long[] slots, long slot) {
+        return !overlaps(slots, slot);
+    }
+
+    private static boolean overlaps(long[] slots, long slot) {
+        int i = Arrays.binarySearch(slots, slot - CONFLICT_BEFORE_MINUTES);
+        if (i >= 0) {
+            return true;
+        }
+        int next = -i - 1;
+        return next < slots.length && slots[next] <= slot + CONFLICT_AFTER_MINUTES;
+    }
+
+    static long toEpochMinute(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
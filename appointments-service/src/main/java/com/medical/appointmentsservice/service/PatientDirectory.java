@@ -0,0 +1,129 @@
+package com.medical.appointmentsservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medical.appointmentsservice.client.PatientClient;
+import com.medical.appointmentsservice.dto.PatientIdsResponse;
+import com.medical.appointmentsservice.exception.PatientNotFoundException;
+import com.medical.appointmentsservice.exception.PatientServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Vérification de l'existence des patients auprès de ms-patients.
+ * <p>
+ * Les réponses sont mises en cache (positives longtemps, négatives brièvement car le patient
+ * peut être créé entre-temps) : une réservation pour un patient connu ne fait aucun appel réseau.
+ * Les IDs inconnus d'un lot sont vérifiés en un seul appel, derrière un circuit breaker.
+ * Si ms-patients est lent ou indisponible, on laisse passer la réservation (mode dégradé)
+ * sauf si appointments.patient-check.fail-open=false.
+ */
+@Component
+@Slf4j
+public class PatientDirectory implements MeterBinder {
+
+    private static final int MAX_IDS_PER_CALL = 500;
+
+    private final PatientClient patientClient;
+    private final CircuitBreaker circuitBreaker;
+    private final boolean failOpen;
+
+    private final Cache<Long, Boolean> knownPatients;
+    private final Cache<Long, Boolean> unknownPatients;
+
+    public PatientDirectory(
+            PatientClient patientClient,
+            CircuitBreakerFactory<?, ?> circuitBreakerFactory,
+            @Value("${appointments.patient-check.fail-open:true}") boolean failOpen,
+            @Value("${appointments.patient-check.max-size:100000}") long maxSize,
+            @Value("${appointments.patient-check.positive-ttl:1h}") Duration positiveTtl,
+            @Value("${appointments.patient-check.negative-ttl:30s}") Duration negativeTtl
+    ) {
+        this.patientClient = patientClient;
+        this.circuitBreaker = circuitBreakerFactory.create("ms-patients");
+        this.failOpen = failOpen;
+        this.knownPatients = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(positiveTtl)
+                .recordStats()
+                .build();
+        this.unknownPatients = Caffeine.newBuilder()
+                .maximumSize(maxSize / 10)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, knownPatients, "patients.known");
+        CaffeineCacheMetrics.monitor(registry, unknownPatients, "patients.unknown");
+    }
+
+    public void requireExisting(Long patientId) {
+        if (!findUnknown(List.of(patientId)).isEmpty()) {
+            throw new PatientNotFoundException(patientId);
+        }
+    }
+
+    /**
+     * Parmi les IDs donnés, ceux dont on sait qu'ils n'existent pas.
+     * En mode dégradé, les IDs non vérifiables sont considérés comme existants.
+     */
+    public Set<Long> findUnknown(Collection<Long> patientIds) {
+        Set<Long> unknown = new HashSet<>();
+        List<Long> toCheck = new ArrayList<>();
+        for (Long patientId : new LinkedHashSet<>(patientIds)) {
+            if (knownPatients.getIfPresent(patientId) != null) {
+                continue;
+            }
+            if (unknownPatients.getIfPresent(patientId) != null) {
+                unknown.add(patientId);
+            } else {
+                toCheck.add(patientId);
+            }
+        }
+
+        for (int from = 0; from < toCheck.size(); from += MAX_IDS_PER_CALL) {
+            List<Long> chunk = toCheck.subList(from, Math.min(from + MAX_IDS_PER_CALL, toCheck.size()));
+            Set<Long> existing = fetchExisting(chunk);
+            if (existing == null) {
+                continue; // mode dégradé : pas de verdict, rien n'est mis en cache
+            }
+            for (Long patientId : chunk) {
+                if (existing.contains(patientId)) {
+                    knownPatients.put(patientId, Boolean.TRUE);
+                } else {
+                    unknownPatients.put(patientId, Boolean.TRUE);
+                    unknown.add(patientId);
+                }
+            }
+        }
+        return unknown;
+    }
+
+    // null si ms-patients n'a pas répondu (délai, erreur, circuit ouvert) et que le mode dégradé est actif
+    private Set<Long> fetchExisting(List<Long> patientIds) {
+        return circuitBreaker.run(
+                () -> {
+                    PatientIdsResponse response = patientClient.findExistingIds(patientIds);
+                    return response.getData() != null ? new HashSet<>(response.getData()) : Set.of();
+                },
+                e -> {
+                    log.warn("Vérification de {} patients impossible : {}", patientIds.size(), e.toString());
+                    if (!failOpen) {
+                        throw new PatientServiceUnavailableException();
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,63 @@
+package com.medical.appointmentsservice;
+
+import com.medical.appointmentsservice.dto.DoctorDTO;
+import com.medical.appointmentsservice.entity.Appointment;
+import com.medical.appointmentsservice.entity.AppointmentStatus;
+import com.medical.appointmentsservice.entity.Doctor;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// Jeux de données communs aux tests : objets non enregistrés, l'e-mail du médecin étant unique
+public final class TestFixtures {
+
+    public static final long PATIENT_ID = 42L;
+    public static final String SPECIALIZATION = "Cardiologue";
+    public static final LocalTime AVAILABLE_FROM = LocalTime.of(8, 0);
+    public static final LocalTime AVAILABLE_TO = LocalTime.of(18, 0);
+
+    private TestFixtures() {
+    }
+
+    public static Doctor doctor() {
+        Doctor doctor = new Doctor();
+        doctor.setFirstName("Jean");
+        doctor.setLastName("Martin");
+        doctor.setEmail(uniqueEmail());
+        doctor.setSpecialization(SPECIALIZATION);
+        doctor.setPhone("0600000000");
+        doctor.setAvailableFrom(AVAILABLE_FROM);
+        doctor.setAvailableTo(AVAILABLE_TO);
+        return doctor;
+    }
+
+    public static DoctorDTO doctorDTO(String specialization) {
+        return doctorDTO(specialization, AVAILABLE_FROM, AVAILABLE_TO);
+    }
+
+    public static DoctorDTO doctorDTO(String specialization, LocalTime from, LocalTime to) {
+        DoctorDTO doctor = new DoctorDTO();
+        doctor.setFirstName("Jean");
+        doctor.setLastName("Martin");
+        doctor.setEmail(uniqueEmail());
+        doctor.setSpecialization(specialization);
+        doctor.setPhone("0600000000");
+        doctor.setAvailableFrom(from);
+        doctor.setAvailableTo(to);
+        return doctor;
+    }
+
+    public static Appointment appointment(Doctor doctor, LocalDateTime dateTime) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatientId(PATIENT_ID);
+        appointment.setAppointmentDateTime(dateTime);
+        appointment.setReason("Contrôle");
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        return appointment;
+    }
+
+    private static String uniqueEmail() {
+        return "doctor-" + System.nanoTime() + "@test.local";
+    }
+}
@@ -0,0 +1,104 @@
+package com.medical.appointmentsservice.controller;
+
+import com.medical.appointmentsservice.entity.Appointment;
+import com.medical.appointmentsservice.entity.Doctor;
+import com.medical.appointmentsservice.repository.AppointmentRepository;
+import com.medical.appointmentsservice.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static com.medical.appointmentsservice.TestFixtures.appointment;
+import static com.medical.appointmentsservice.TestFixtures.doctor;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Pagination par curseur (?after=&limit=) de bout en bout : contrôleur, requête keyset, CursorPage
+@SpringBootTest(properties = {
+        "mes-config-ms.appointments-last=30",
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false"
+})
+@AutoConfigureMockMvc
+class CursorPagingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void doctorsArePagedByIdCursor() throws Exception {
+        long first = saveDoctor().getId();
+        long second = saveDoctor().getId();
+        long third = saveDoctor().getId();
+
+        mockMvc.perform(get("/api/doctors").param("after", "0").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains((int) first, (int) second)))
+                .andExpect(jsonPath("$.limit").value(2))
+                .andExpect(jsonPath("$.nextCursor").value((int) second));
+
+        mockMvc.perform(get("/api/doctors").param("after", String.valueOf(second)).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains((int) third)))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    void doctorAppointmentsArePagedByIdCursor() throws Exception {
+        Doctor doctor = saveDoctor();
+        long first = saveAppointment(doctor, 1).getId();
+        long second = saveAppointment(doctor, 2).getId();
+        long third = saveAppointment(doctor, 3).getId();
+        saveAppointment(saveDoctor(), 4);
+
+        mockMvc.perform(get("/api/appointments/doctor/{doctorId}", doctor.getId()).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains((int) first, (int) second)))
+                .andExpect(jsonPath("$.nextCursor").value((int) second));
+
+        mockMvc.perform(get("/api/appointments/doctor/{doctorId}", doctor.getId())
+                        .param("after", String.valueOf(second)).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains((int) third)))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    void limitIsClampedToTheMaximumPageSize() throws Exception {
+        saveDoctor();
+
+        mockMvc.perform(get("/api/doctors").param("limit", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.limit").value(500))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    private Doctor saveDoctor() {
+        return doctorRepository.save(doctor());
+    }
+
+    private Appointment saveAppointment(Doctor doctor, int day) {
+        return appointmentRepository.save(
+                appointment(doctor, LocalDateTime.now().plusDays(day).withHour(9).withMinute(0)));
+    }
+}
@@ -0,0 +1,96 @@
+package com.medical.appointmentsservice.service;
+
+import com.medical.appointmentsservice.entity.Doctor;
+import com.medical.appointmentsservice.repository.AppointmentRepository;
+import com.medical.appointmentsservice.repository.DoctorRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static com.medical.appointmentsservice.TestFixtures.PATIENT_ID;
+import static com.medical.appointmentsservice.TestFixtures.appointment;
+import static com.medical.appointmentsservice.TestFixtures.doctor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "mes-config-ms.appointments-last=30",
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AppointmentQueryCountTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void patientListingStatementCountDoesNotGrowWithDoctors() {
+        book(1);
+        long withOneDoctor = statementsFor(() -> appointmentService.getAppointmentsByPatient(PATIENT_ID));
+
+        book(20);
+        long withManyDoctors = statementsFor(() -> appointmentService.getAppointmentsByPatient(PATIENT_ID));
+
+        assertThat(withOneDoctor).isEqualTo(1);
+        assertThat(withManyDoctors).isEqualTo(withOneDoctor);
+    }
+
+    @Test
+    void upcomingListingStatementCountDoesNotGrowWithDoctors() {
+        book(1);
+        long withOneDoctor = statementsFor(() -> appointmentService.getUpcomingAppointments());
+
+        book(20);
+        long withManyDoctors = statementsFor(() -> appointmentService.getUpcomingAppointments());
+
+        assertThat(withOneDoctor).isEqualTo(1);
+        assertThat(withManyDoctors).isEqualTo(withOneDoctor);
+    }
+
+    @Test
+    void doctorListingUsesSingleStatement() {
+        Doctor doctor = book(1);
+        assertThat(statementsFor(() -> appointmentService.getAppointmentsByDoctor(doctor.getId(), 0, 50)))
+                .isEqualTo(1);
+    }
+
+    private long statementsFor(Runnable listing) {
+        statistics.clear();
+        listing.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Un RDV futur par médecin, chaque médecin étant nouveau
+    private Doctor book(int doctors) {
+        Doctor doctor = null;
+        for (int i = 0; i < doctors; i++) {
+            doctor = doctorRepository.save(doctor());
+            appointmentRepository.save(appointment(doctor, LocalDateTime.now().plusDays(1).plusMinutes(i)));
+        }
+        return doctor;
+    }
+}
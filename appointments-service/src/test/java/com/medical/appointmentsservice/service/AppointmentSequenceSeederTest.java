@@ -0,0 +1,85 @@
+package com.medical.appointmentsservice.service;
+
+import com.medical.appointmentsservice.entity.Appointment;
+import com.medical.appointmentsservice.repository.AppointmentRepository;
+import com.medical.appointmentsservice.repository.DoctorRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static com.medical.appointmentsservice.TestFixtures.appointment;
+import static com.medical.appointmentsservice.TestFixtures.doctor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "mes-config-ms.appointments-last=30",
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false"
+})
+class AppointmentSequenceSeederTest {
+
+    // Id hérité de l'ancienne colonne IDENTITY, bien au-delà de la séquence du test
+    private static final long LEGACY_ID = 1_000_000L;
+
+    @Autowired
+    private AppointmentSequenceSeeder seeder;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void sequenceIsMovedPastLegacyIdsAndKeepsItsIncrement() {
+        Appointment appointment = saveAppointment();
+        jdbcTemplate.update("UPDATE appointments SET id = ? WHERE id = ?", LEGACY_ID, appointment.getId());
+
+        seeder.seed();
+
+        long next = nextValue();
+        assertThat(next - AppointmentSequenceSeeder.ALLOCATION_SIZE + 1).isGreaterThan(LEGACY_ID);
+        assertThat(nextValue() - next).isEqualTo(AppointmentSequenceSeeder.ALLOCATION_SIZE);
+    }
+
+    @Test
+    void sequenceAlreadyAheadIsLeftAsIs() {
+        saveAppointment();
+        long before = nextValue();
+
+        seeder.seed();
+
+        // Seul le bloc lu par la vérification est consommé
+        assertThat(nextValue()).isEqualTo(before + 2L * AppointmentSequenceSeeder.ALLOCATION_SIZE);
+    }
+
+    private long nextValue() {
+        String sql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString(AppointmentSequenceSeeder.SEQUENCE);
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private Appointment saveAppointment() {
+        return appointmentRepository.save(
+                appointment(doctorRepository.save(doctor()), LocalDateTime.now().plusDays(1)));
+    }
+}
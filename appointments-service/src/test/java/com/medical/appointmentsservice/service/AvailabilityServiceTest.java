@@ -0,0 +1,164 @@
+package com.medical.appointmentsservice.service;
+
+import com.medical.appointmentsservice.dto.AvailableSlotDTO;
+import com.medical.appointmentsservice.dto.DoctorDTO;
+import com.medical.appointmentsservice.entity.Appointment;
+import com.medical.appointmentsservice.entity.AppointmentStatus;
+import com.medical.appointmentsservice.exception.InvalidAvailabilitySearchException;
+import com.medical.appointmentsservice.repository.AppointmentRepository;
+import com.medical.appointmentsservice.repository.DoctorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.medical.appointmentsservice.TestFixtures.appointment;
+import static com.medical.appointmentsservice.TestFixtures.doctorDTO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "mes-config-ms.appointments-last=30",
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false"
+})
+class AvailabilityServiceTest {
+
+    private static final LocalDateTime TOMORROW = LocalDate.now().plusDays(1).atStartOfDay();
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private DoctorSlotIndex doctorSlotIndex;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    // L'index est un singleton partagé par le contexte : chaque test retire ce qu'il y a ajouté
+    private final List<Map.Entry<Long, LocalDateTime>> reserved = new ArrayList<>();
+
+    @AfterEach
+    void releaseReservedSlots() {
+        reserved.forEach(slot -> doctorSlotIndex.release(slot.getKey(), slot.getValue()));
+        reserved.clear();
+    }
+
+    @Test
+    void mergesFreeSlotsOfAllDoctorsInChronologicalOrder() {
+        String specialization = "Cardiologue-" + System.nanoTime();
+        DoctorDTO early = doctor(specialization, LocalTime.of(9, 0), LocalTime.of(12, 0));
+        DoctorDTO late = doctor(specialization, LocalTime.of(10, 0), LocalTime.of(12, 0));
+        reserve(early.getId(), TOMORROW.withHour(9));
+
+        List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(
+                specialization, TOMORROW, TOMORROW.plusDays(1), 4);
+
+        assertThat(slots).extracting(AvailableSlotDTO::getDoctorId, AvailableSlotDTO::getStart)
+                .containsExactly(
+                        tuple(early.getId(), TOMORROW.withHour(9).withMinute(30)),
+                        tuple(early.getId(), TOMORROW.withHour(10)),
+                        tuple(late.getId(), TOMORROW.withHour(10)),
+                        tuple(early.getId(), TOMORROW.withHour(10).withMinute(30)));
+    }
+
+    @Test
+    void slotsEndWithinAvailabilityAndPeriod() {
+        String specialization = "Dentiste-" + System.nanoTime();
+        doctor(specialization, LocalTime.of(9, 0), LocalTime.of(10, 15));
+
+        List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(
+                specialization, TOMORROW, TOMORROW.plusDays(2), 10);
+
+        assertThat(slots).extracting(AvailableSlotDTO::getStart).containsExactly(
+                TOMORROW.withHour(9), TOMORROW.withHour(9).withMinute(30),
+                TOMORROW.plusDays(1).withHour(9), TOMORROW.plusDays(1).withHour(9).withMinute(30));
+    }
+
+    @Test
+    void fullyBookedDoctorsAreSkippedAcrossHundredsOfDoctors() {
+        String specialization = "Généraliste-" + System.nanoTime();
+        for (int i = 0; i < 300; i++) {
+            DoctorDTO doctor = doctor(specialization, LocalTime.of(8, 0), LocalTime.of(18, 0));
+            // Première semaine entièrement occupée pour tous sauf le dernier
+            for (int day = 0; i < 299 && day < 7; day++) {
+                for (LocalDateTime slot = TOMORROW.plusDays(day).withHour(8);
+                     slot.getHour() < 18; slot = slot.plusMinutes(30)) {
+                    reserve(doctor.getId(), slot);
+                }
+            }
+        }
+
+        List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(
+                specialization, TOMORROW, TOMORROW.plusDays(14), 20);
+
+        assertThat(slots).hasSize(20);
+        assertThat(slots.get(0).getStart()).isEqualTo(TOMORROW.withHour(8));
+        assertThat(slots).extracting(AvailableSlotDTO::getStart).isSorted();
+    }
+
+    @Test
+    void bookingsUnknownToIndexAreExcluded() {
+        String specialization = "Pédiatre-" + System.nanoTime();
+        DoctorDTO doctor = doctor(specialization, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        // RDV enregistré par une autre instance : présent en base, absent de l'index local
+        book(doctor.getId(), TOMORROW.withHour(9));
+
+        List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(
+                specialization, TOMORROW, TOMORROW.plusDays(1), 10);
+
+        assertThat(slots).extracting(AvailableSlotDTO::getStart).containsExactly(
+                TOMORROW.withHour(9).withMinute(30), TOMORROW.withHour(10), TOMORROW.withHour(10).withMinute(30));
+    }
+
+    @Test
+    void cancelledBookingsLeaveSlotFree() {
+        String specialization = "Dermatologue-" + System.nanoTime();
+        DoctorDTO doctor = doctor(specialization, LocalTime.of(9, 0), LocalTime.of(10, 0));
+        Appointment appointment = book(doctor.getId(), TOMORROW.withHour(9));
+        appointment.setStatus(AppointmentStatus.CANCELLED);
+        appointmentRepository.save(appointment);
+
+        List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(
+                specialization, TOMORROW, TOMORROW.plusDays(1), 10);
+
+        assertThat(slots).extracting(AvailableSlotDTO::getStart).containsExactly(
+                TOMORROW.withHour(9), TOMORROW.withHour(9).withMinute(30));
+    }
+
+    @Test
+    void periodAlreadyOverIsRejected() {
+        LocalDateTime yesterday = TOMORROW.minusDays(2);
+
+        assertThatThrownBy(() -> availabilityService.findFreeSlots(
+                "Cardiologue", yesterday.withHour(9), yesterday.withHour(12), 10))
+                .isInstanceOf(InvalidAvailabilitySearchException.class);
+    }
+
+    private Appointment book(Long doctorId, LocalDateTime dateTime) {
+        return appointmentRepository.save(appointment(doctorRepository.getReferenceById(doctorId), dateTime));
+    }
+
+    private void reserve(Long doctorId, LocalDateTime slot) {
+        doctorSlotIndex.reserve(doctorId, slot);
+        reserved.add(Map.entry(doctorId, slot));
+    }
+
+    private DoctorDTO doctor(String specialization, LocalTime from, LocalTime to) {
+        return doctorService.createDoctor(doctorDTO(specialization, from, to));
+    }
+}
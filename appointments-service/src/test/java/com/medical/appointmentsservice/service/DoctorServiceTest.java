@@ -0,0 +1,66 @@
+package com.medical.appointmentsservice.service;
+
+import com.medical.appointmentsservice.config.CacheConfig;
+import com.medical.appointmentsservice.dto.DoctorDTO;
+import com.medical.appointmentsservice.repository.DoctorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.medical.appointmentsservice.TestFixtures.doctorDTO;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "mes-config-ms.appointments-last=30",
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false"
+})
+class DoctorServiceTest {
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void rolledBackUpdateLeavesCachedDoctorUnchanged() {
+        DoctorDTO doctor = doctorService.createDoctor(doctorDTO("Cardiologue"));
+        doctorService.getDoctorById(doctor.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            DoctorDTO update = doctorDTO("Cardiologue");
+            update.setLastName("Durand");
+            doctorService.updateDoctor(doctor.getId(), update);
+            status.setRollbackOnly();
+        });
+
+        assertThat(doctorService.getDoctorById(doctor.getId()).getLastName()).isEqualTo("Martin");
+    }
+
+    @Test
+    void doctorDeletedBehindCachedIdListIsSkipped() {
+        String specialization = "Neurologue-" + System.nanoTime();
+        DoctorDTO kept = doctorService.createDoctor(doctorDTO(specialization));
+        DoctorDTO deleted = doctorService.createDoctor(doctorDTO(specialization));
+        assertThat(doctorService.getDoctorsBySpecialization(specialization)).hasSize(2);
+
+        // Supprimé par une autre instance : la liste d'IDs en cache le référence encore
+        doctorRepository.deleteById(deleted.getId());
+        cacheManager.getCache(CacheConfig.DOCTORS).evict(deleted.getId());
+
+        List<DoctorDTO> doctors = doctorService.getDoctorsBySpecialization(specialization);
+
+        assertThat(doctors).extracting(DoctorDTO::getId).containsExactly(kept.getId());
+    }
+}
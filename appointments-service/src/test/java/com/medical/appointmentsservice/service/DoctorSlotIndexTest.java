@@ -0,0 +1,69 @@
+package com.medical.appointmentsservice.service;
+
+import com.medical.appointmentsservice.entity.Doctor;
+import com.medical.appointmentsservice.repository.AppointmentRepository;
+import com.medical.appointmentsservice.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static com.medical.appointmentsservice.TestFixtures.appointment;
+import static com.medical.appointmentsservice.TestFixtures.doctor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "mes-config-ms.appointments-last=30",
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false"
+})
+class DoctorSlotIndexTest {
+
+    private static final LocalDateTime TOMORROW = LocalDate.now().plusDays(1).atStartOfDay();
+
+    @Autowired
+    private DoctorSlotIndex doctorSlotIndex;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        doctorSlotIndex.refresh();
+    }
+
+    @Test
+    void refreshDropsPastSlotsAndSlotsUnknownToDatabase() {
+        Doctor doctor = doctorRepository.save(doctor());
+        LocalDateTime booked = TOMORROW.withHour(9);
+        appointmentRepository.save(appointment(doctor, booked));
+        // Hors transaction : restent dans l'index jusqu'au rechargement
+        doctorSlotIndex.reserve(doctor.getId(), TOMORROW.minusDays(2).withHour(9));
+        doctorSlotIndex.reserve(doctor.getId(), TOMORROW.withHour(14));
+
+        doctorSlotIndex.refresh();
+
+        assertThat(doctorSlotIndex.bookedSlots(doctor.getId()))
+                .containsExactly(DoctorSlotIndex.toEpochMinute(booked));
+    }
+
+    @Test
+    void freeAnswerIsConfirmedByDatabase() {
+        Doctor doctor = doctorRepository.save(doctor());
+        LocalDateTime booked = TOMORROW.withHour(10);
+        // Réservé par une autre instance : absent de l'index local
+        appointmentRepository.save(appointment(doctor, booked));
+
+        assertThat(doctorSlotIndex.bookedSlots(doctor.getId())).isEmpty();
+        assertThat(doctorSlotIndex.isFree(doctor.getId(), booked.plusMinutes(15))).isFalse();
+        assertThat(doctorSlotIndex.isFree(doctor.getId(), booked.plusMinutes(60))).isTrue();
+    }
+}
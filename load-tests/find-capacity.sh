@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# Débit maximal tenu sous le seuil de p99 : lance le script k6 à des débits croissants
+# et s'arrête au premier palier dont les seuils échouent.
+#   usage : RATES="100 200 400 800" ./find-capacity.sh virtual-threads.js
+# Les autres variables (BASE_URL, PATHS, P99_MS, DURATION...) sont transmises au script k6.
+set -euo pipefail
+
+script="${1:?usage: find-capacity.sh <script k6>}"
+rates="${RATES:-100 200 300 400 600 800 1000 1500 2000}"
+summaries="${SUMMARY_DIR:-results}"
+mkdir -p "$summaries"
+
+capacity=0
+for rate in $rates; do
+    echo "=== ${rate} req/s"
+    if k6 run --quiet -e RATE="$rate" \
+            --summary-export "${summaries}/$(basename "$script" .js)-${rate}.json" "$script"; then
+        capacity=$rate
+    else
+        echo "=== seuils dépassés à ${rate} req/s"
+        break
+    fi
+done
+echo "Débit maximal tenu : ${capacity} req/s (P99_MS=${P99_MS:-250})"
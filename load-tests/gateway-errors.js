@@ -0,0 +1,48 @@
+// Charge à 100 % d'erreurs sur la gateway : tous les appels finissent dans l'écriture des réponses
+// d'erreur (JWT manquant ou invalide -> 401, route inconnue -> 404 via GlobalExceptionHandler).
+// Gateway démarrée avec jwt.enabled=true ; les services en aval n'ont pas besoin de tourner.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = Number(__ENV.RATE || 2000);
+const P99_MS = Number(__ENV.P99_MS || 50);
+const DURATION = __ENV.DURATION || '1m';
+
+const CASES = [
+    { name: 'missing-token', path: '/api/patients/1', headers: {}, status: 401 },
+    { name: 'invalid-token', path: '/api/patients/1', headers: { Authorization: 'Bearer not.a.jwt' }, status: 401 },
+    { name: 'unknown-route', path: '/api/unknown/1', headers: {}, status: 404 },
+];
+
+http.setResponseCallback(http.expectedStatuses(401, 404));
+
+export const options = {
+    scenarios: {
+        errors: {
+            executor: 'constant-arrival-rate',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: Math.max(50, RATE / 10),
+            maxVUs: RATE,
+        },
+    },
+    thresholds: {
+        http_req_duration: [`p(99)<${P99_MS}`],
+        http_req_failed: ['rate<0.01'],
+        checks: ['rate>0.99'],
+        dropped_iterations: ['count<1'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const errorCase = CASES[Math.floor(Math.random() * CASES.length)];
+    const response = http.get(`${BASE_URL}${errorCase.path}`,
+        { headers: errorCase.headers, tags: { name: errorCase.name } });
+    check(response, {
+        'expected status': (r) => r.status === errorCase.status,
+        'json body': (r) => (r.headers['Content-Type'] || '').startsWith('application/json'),
+    });
+}
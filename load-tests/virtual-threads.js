@@ -0,0 +1,39 @@
+// Charge à débit fixe sur un service MVC (ms-patients ou appointments-service), appelé directement.
+// Le run échoue (code 99) si le p99 dépasse P99_MS, si plus de 1 % des requêtes échouent
+// ou si k6 n'a pas pu tenir le débit demandé : voir find-capacity.sh et README.md.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+// Chemins tirés au hasard ; {id} est remplacé par un entier dans [1, MAX_ID]
+const PATHS = (__ENV.PATHS || '/api/patients?after={id}&limit=20').split(',');
+const MAX_ID = Number(__ENV.MAX_ID || 10000);
+const RATE = Number(__ENV.RATE || 200);
+const P99_MS = Number(__ENV.P99_MS || 250);
+const DURATION = __ENV.DURATION || '1m';
+
+export const options = {
+    scenarios: {
+        fixed_rate: {
+            executor: 'constant-arrival-rate',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: Math.max(50, RATE),
+            maxVUs: RATE * 4,
+        },
+    },
+    thresholds: {
+        http_req_duration: [`p(99)<${P99_MS}`],
+        http_req_failed: ['rate<0.01'],
+        dropped_iterations: ['count<1'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const path = PATHS[Math.floor(Math.random() * PATHS.length)]
+        .replace('{id}', String(1 + Math.floor(Math.random() * MAX_ID)));
+    const response = http.get(`${BASE_URL}${path}`, { tags: { name: path.split('?')[0] } });
+    check(response, { 'status 200': (r) => r.status === 200 });
+}
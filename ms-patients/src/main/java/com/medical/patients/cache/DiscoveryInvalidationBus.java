@@ -0,0 +1,76 @@
+package com.medical.patients.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import java.time.Duration;
+
+// ========== BUS D'INVALIDATION VIA EUREKA ==========
+// Pas de broker : chaque instance notifie directement les autres réplicas connus d'Eureka,
+// en asynchrone, sur POST /internal/cache/patients/{id}/invalidate.
+@Component
+@Slf4j
+public class DiscoveryInvalidationBus implements InvalidationBus {
+
+    static final String INVALIDATE_PATH = "/internal/cache/patients/{id}/invalidate";
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final TaskExecutor taskExecutor;
+    private final RestTemplate restTemplate;
+
+    @Value("${spring.application.name}")
+    private String serviceId;
+
+    @Value("${patients.near-cache.peer-invalidation:true}")
+    private boolean peerInvalidation;
+
+    public DiscoveryInvalidationBus(DiscoveryClient discoveryClient,
+                                    ObjectProvider<Registration> registration,
+                                    @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                    RestTemplateBuilder restTemplateBuilder) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.taskExecutor = taskExecutor;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(500))
+                .setReadTimeout(Duration.ofSeconds(1))
+                .build();
+    }
+
+    @Override
+    public void publish(Long patientId) {
+        if (!peerInvalidation) {
+            return;
+        }
+        Registration self = registration.getIfAvailable();
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            if (self != null && isSelf(self, instance)) {
+                continue;
+            }
+            taskExecutor.execute(() -> notifyPeer(instance, patientId));
+        }
+    }
+
+    private void notifyPeer(ServiceInstance instance, Long patientId) {
+        try {
+            restTemplate.postForLocation(instance.getUri() + INVALIDATE_PATH, null, patientId);
+        } catch (Exception e) {
+            // Le TTL du near-cache borne la durée de l'incohérence
+            log.warn("Invalidation du patient {} non transmise à {} : {}",
+                    patientId, instance.getUri(), e.getMessage());
+        }
+    }
+
+    private static boolean isSelf(Registration self, ServiceInstance instance) {
+        return self.getHost().equalsIgnoreCase(instance.getHost()) && self.getPort() == instance.getPort();
+    }
+}
@@ -0,0 +1,8 @@
+package com.medical.patients.cache;
+
+// ========== BUS D'INVALIDATION ENTRE INSTANCES ==========
+// Diffuse l'ID d'un patient modifié aux autres réplicas ms-patients.
+public interface InvalidationBus {
+
+    void publish(Long patientId);
+}
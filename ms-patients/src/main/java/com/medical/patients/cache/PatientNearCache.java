@@ -0,0 +1,85 @@
+package com.medical.patients.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medical.patients.dto.PatientDTO;
+import com.medical.patients.util.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.function.Function;
+
+// ========== NEAR-CACHE PATIENTS ==========
+// Cache local borné (taille + TTL) des lectures par ID et par numéro de sécu.
+// Une modification invalide l'entrée localement puis sur les autres réplicas via le bus ;
+// le TTL reste le filet de sécurité si un message d'invalidation est perdu.
+@Component
+@Slf4j
+public class PatientNearCache implements MeterBinder {
+
+    private final Cache<Long, PatientDTO> byId;
+    private final Cache<String, Long> idByNumeroSecu;
+    private final InvalidationBus bus;
+
+    public PatientNearCache(InvalidationBus bus,
+                            @Value("${patients.near-cache.max-size:50000}") long maxSize,
+                            @Value("${patients.near-cache.ttl:5m}") Duration ttl) {
+        this.bus = bus;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idByNumeroSecu = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Taux de succès, évictions et taille exposés par l'actuator (cache.gets, cache.size...)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "patients.near-cache.by-id");
+        CaffeineCacheMetrics.monitor(registry, idByNumeroSecu, "patients.near-cache.by-secu");
+    }
+
+    public PatientDTO getById(Long id, Function<Long, PatientDTO> loader) {
+        return byId.get(id, loader);
+    }
+
+    public PatientDTO getByNumeroSecu(String numeroSecu, Function<String, PatientDTO> loader) {
+        Long id = idByNumeroSecu.getIfPresent(numeroSecu);
+        if (id != null) {
+            PatientDTO cached = byId.getIfPresent(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        PatientDTO loaded = loader.apply(numeroSecu);
+        byId.put(loaded.getId(), loaded);
+        idByNumeroSecu.put(numeroSecu, loaded.getId());
+        return loaded;
+    }
+
+    // Invalidation locale + diffusion, après commit pour ne pas relire l'ancien état
+    public void invalidateAfterCommit(Long id) {
+        AfterCommit.run(() -> invalidate(id));
+    }
+
+    public void invalidate(Long id) {
+        evictLocal(id);
+        bus.publish(id);
+    }
+
+    // Appelé à la réception d'une invalidation venant d'une autre instance.
+    // L'entrée par numéro de sécu n'est qu'un renvoi vers l'ID : elle se résout à la prochaine lecture.
+    public void evictLocal(Long id) {
+        byId.invalidate(id);
+        log.debug("Near-cache : patient {} invalidé", id);
+    }
+}
@@ -0,0 +1,18 @@
+package com.medical.patients.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// ========== MÉTRIQUES ==========
+// Active @Timed sur les services (Spring Boot 3.1 ne déclare pas l'aspect lui-même).
+// Les histogrammes (percentiles côté Prometheus) sont configurés dans application.properties.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.medical.patients.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// ========== THREADS VIRTUELS ==========
+// Spring Boot 3.1 ne gère pas encore spring.threads.virtual.enabled (3.2+) : on reprend la même
+// propriété pour brancher Tomcat et l'exécuteur applicatif sur un exécuteur à threads virtuels.
+// L'API Java 21 est appelée par réflexion pour que le build Java 17 par défaut reste inchangé.
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Requêtes HTTP traitées sur des threads virtuels");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    // Remplace l'exécuteur par défaut (pool borné) utilisé par @Async et les traitements de fond
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(executor);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Threads virtuels indisponibles : Java 21 requis", e);
+        }
+    }
+}
@@ -7,11 +7,17 @@ import com.medical.patients.service.PatientService;
 import com.medical.patients.service.DossierService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -25,4 +31,29 @@ public class BaseController {
         return ResponseEntity.status(status)
                 .body(ApiResponse.error(message));
     }
+
+    // Réponse NDJSON écrite en flux, éventuellement compressée
+    protected ResponseEntity<StreamingResponseBody> ndjson(boolean gzip, NdjsonWriter writer) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                writer.write(compressed);
+                compressed.finish();
+            } else {
+                writer.write(out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @FunctionalInterface
+    protected interface NdjsonWriter {
+        long write(OutputStream out) throws IOException;
+    }
 }
\ No newline at end of file
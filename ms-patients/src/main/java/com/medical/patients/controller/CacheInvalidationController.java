@@ -0,0 +1,27 @@
+package com.medical.patients.controller;
+
+import com.medical.patients.cache.PatientNearCache;
+import com.medical.patients.search.PatientSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Endpoint interne (non routé par la gateway) appelé par les autres réplicas
+@RestController
+@RequestMapping("/internal/cache")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationController {
+
+    private final PatientNearCache patientNearCache;
+    private final PatientSearchIndex patientSearchIndex;
+
+    @PostMapping("/patients/{id}/invalidate")
+    public ResponseEntity<Void> invalidatePatient(@PathVariable Long id) {
+        log.debug("POST /internal/cache/patients/{}/invalidate", id);
+        patientNearCache.evictLocal(id);
+        patientSearchIndex.reload(id);
+        return ResponseEntity.noContent().build();
+    }
+}
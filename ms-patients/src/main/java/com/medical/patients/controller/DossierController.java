@@ -1,15 +1,18 @@
 package com.medical.patients.controller;
 
+import com.medical.patients.dto.CursorPage;
 import com.medical.patients.dto.PatientDTO;
 import com.medical.patients.dto.DossierDTO;
 import com.medical.patients.dto.ApiResponse;
 import com.medical.patients.service.PatientService;
 import com.medical.patients.service.DossierService;
+import com.medical.patients.service.ExportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 import java.util.List;
 
@@ -20,6 +23,7 @@ import java.util.List;
 public class DossierController extends BaseController {
 
     private final DossierService dossierService;
+    private final ExportService exportService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<DossierDTO>> createDossier(@Valid @RequestBody DossierDTO dossierDTO) {
@@ -35,10 +39,19 @@ public class DossierController extends BaseController {
         return success(dossier, "Dossier récupéré avec succès", HttpStatus.OK);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportDossiers(@RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("GET /api/dossiers/export - Export NDJSON (gzip={})", gzip);
+        return ndjson(gzip, exportService::exportDossiers);
+    }
+
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<ApiResponse<List<DossierDTO>>> getDossiersByPatientId(@PathVariable Long patientId) {
+    public ResponseEntity<ApiResponse<CursorPage<DossierDTO>>> getDossiersByPatientId(
+            @PathVariable Long patientId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "50") int limit) {
         log.info("GET /api/dossiers/patient/{} - Récupération dossiers patient", patientId);
-        List<DossierDTO> dossiers = dossierService.getDossiersByPatientId(patientId);
+        CursorPage<DossierDTO> dossiers = dossierService.getDossiersByPatientId(patientId, after, limit);
         return success(dossiers, "Dossiers du patient récupérés", HttpStatus.OK);
     }
 
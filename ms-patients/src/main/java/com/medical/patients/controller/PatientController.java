@@ -1,15 +1,18 @@
 package com.medical.patients.controller;
 
+import com.medical.patients.dto.CursorPage;
 import com.medical.patients.dto.PatientDTO;
 import com.medical.patients.dto.DossierDTO;
 import com.medical.patients.dto.ApiResponse;
 import com.medical.patients.service.PatientService;
 import com.medical.patients.service.DossierService;
+import com.medical.patients.service.ExportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 import java.util.List;
 
@@ -20,6 +23,7 @@ import java.util.List;
 public class PatientController extends BaseController {
 
     private final PatientService patientService;
+    private final ExportService exportService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<PatientDTO>> createPatient(@Valid @RequestBody PatientDTO patientDTO) {
@@ -36,12 +40,20 @@ public class PatientController extends BaseController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<PatientDTO>>> getAllPatients() {
-        log.info("GET /api/patients - Récupération tous patients");
-        List<PatientDTO> patients = patientService.getAllPatients();
+    public ResponseEntity<ApiResponse<CursorPage<PatientDTO>>> getAllPatients(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        log.info("GET /api/patients - Récupération patients après {}", after);
+        CursorPage<PatientDTO> patients = patientService.getAllPatients(after, limit);
         return success(patients, "Liste des patients récupérée", HttpStatus.OK);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPatients(@RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("GET /api/patients/export - Export NDJSON (gzip={})", gzip);
+        return ndjson(gzip, exportService::exportPatients);
+    }
+
     @GetMapping("/secu/{numeroSecu}")
     public ResponseEntity<ApiResponse<PatientDTO>> getPatientByNumeroSecu(@PathVariable String numeroSecu) {
         log.info("GET /api/patients/secu/{} - Recherche par numéro sécu", numeroSecu);
@@ -49,27 +61,59 @@ public class PatientController extends BaseController {
         return success(patient, "Patient trouvé", HttpStatus.OK);
     }
 
+    // Vérification d'existence groupée (réservations dans appointments-service)
+    @PostMapping("/exists")
+    public ResponseEntity<ApiResponse<List<Long>>> getExistingIds(@RequestBody List<Long> ids) {
+        log.debug("POST /api/patients/exists - {} IDs", ids.size());
+        if (ids.size() > PatientService.MAX_PAGE_SIZE) {
+            return error("Au plus " + PatientService.MAX_PAGE_SIZE + " IDs par requête", HttpStatus.BAD_REQUEST);
+        }
+        List<Long> existing = patientService.getExistingIds(ids);
+        return success(existing, "Patients existants", HttpStatus.OK);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<PatientDTO>>> searchPatients(@RequestParam String nom) {
+    public ResponseEntity<ApiResponse<List<PatientDTO>>> searchPatients(
+            @RequestParam String nom,
+            @RequestParam(defaultValue = "20") int limit) {
         log.info("GET /api/patients/search - Recherche par nom : {}", nom);
-        List<PatientDTO> patients = patientService.searchByNom(nom);
+        List<PatientDTO> patients = patientService.searchByNom(nom, limit);
         return success(patients, "Recherche effectuée", HttpStatus.OK);
     }
 
     @GetMapping("/with-allergies")
-    public ResponseEntity<ApiResponse<List<PatientDTO>>> getPatientsWithAllergies() {
+    public ResponseEntity<ApiResponse<CursorPage<PatientDTO>>> getPatientsWithAllergies(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "50") int limit) {
         log.info("GET /api/patients/with-allergies");
-        List<PatientDTO> patients = patientService.getPatientsAvecAllergies();
+        CursorPage<PatientDTO> patients = patientService.getPatientsAvecAllergies(after, limit);
         return success(patients, "Patients avec allergies récupérés", HttpStatus.OK);
     }
 
     @GetMapping("/with-chronic-diseases")
-    public ResponseEntity<ApiResponse<List<PatientDTO>>> getPatientsWithChronicDiseases() {
+    public ResponseEntity<ApiResponse<CursorPage<PatientDTO>>> getPatientsWithChronicDiseases(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "50") int limit) {
         log.info("GET /api/patients/with-chronic-diseases");
-        List<PatientDTO> patients = patientService.getPatientsAvecMaladiesChroniques();
+        CursorPage<PatientDTO> patients = patientService.getPatientsAvecMaladiesChroniques(after, limit);
         return success(patients, "Patients avec maladies chroniques récupérés", HttpStatus.OK);
     }
 
+    @GetMapping("/cohort")
+    public ResponseEntity<ApiResponse<CursorPage<PatientDTO>>> getCohort(
+            @RequestParam(required = false) String allergie,
+            @RequestParam(required = false) String maladie,
+            @RequestParam(required = false) String ville,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        log.info("GET /api/patients/cohort - allergie={}, maladie={}, ville={}", allergie, maladie, ville);
+        if ((allergie == null || allergie.isBlank()) && (maladie == null || maladie.isBlank())) {
+            return error("Critère allergie ou maladie requis", HttpStatus.BAD_REQUEST);
+        }
+        CursorPage<PatientDTO> patients = patientService.getCohorte(allergie, maladie, ville, after, limit);
+        return success(patients, "Cohorte récupérée", HttpStatus.OK);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<PatientDTO>> updatePatient(
             @PathVariable Long id,
@@ -0,0 +1,31 @@
+package com.medical.patients.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.function.Function;
+
+// ========== PAGE PAR CURSEUR (keyset) ==========
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+    private List<T> items;
+    private int limit;
+    // ID à passer en ?after= pour la page suivante, null sur la dernière page
+    private Long nextCursor;
+
+    public static <T> CursorPage<T> of(List<T> items, int limit, Function<T, Long> idOf) {
+        Long nextCursor = items.size() == limit && !items.isEmpty()
+                ? idOf.apply(items.get(items.size() - 1))
+                : null;
+        return CursorPage.<T>builder()
+                .items(items)
+                .limit(limit)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.medical.patients.entity;
 
+import com.medical.patients.search.TextNormalizer;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,7 +11,11 @@ import java.time.LocalDateTime;
 
 // ========== ENTITÉ PATIENT ==========
 @Entity
-@Table(name = "patients")
+@Table(name = "patients", indexes = {
+        @Index(name = "idx_patients_has_allergies", columnList = "has_allergies, id"),
+        @Index(name = "idx_patients_has_maladies_chroniques", columnList = "has_maladies_chroniques, id"),
+        @Index(name = "idx_patients_ville_normalisee", columnList = "ville_normalisee, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,6 +50,10 @@ public class Patient {
     @Column(length = 50)
     private String ville;
 
+    // Ville sans accents ni casse ("Orléans" -> "orleans"), indexée pour les cohortes
+    @Column(name = "ville_normalisee", length = 50)
+    private String villeNormalisee;
+
     @Column(length = 20)
     private String telephone;
 
@@ -57,6 +66,13 @@ public class Patient {
     @Column(columnDefinition = "TEXT")
     private String maladiesChroniques;
 
+    // Indicateurs indexés, dérivés des champs libres ci-dessus
+    @Column(name = "has_allergies")
+    private Boolean hasAllergies;
+
+    @Column(name = "has_maladies_chroniques")
+    private Boolean hasMaladiesChroniques;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime dateCreation;
 
@@ -67,10 +83,26 @@ public class Patient {
     protected void onCreate() {
         dateCreation = LocalDateTime.now();
         dateModification = LocalDateTime.now();
+        updateDerivedFields();
     }
 
     @PreUpdate
     protected void onUpdate() {
         dateModification = LocalDateTime.now();
+        updateDerivedFields();
+    }
+
+    public void updateDerivedFields() {
+        hasAllergies = isFilled(allergies);
+        hasMaladiesChroniques = isFilled(maladiesChroniques);
+        villeNormalisee = normalizeVille(ville);
+    }
+
+    public static boolean isFilled(String text) {
+        return text != null && !text.isBlank();
+    }
+
+    public static String normalizeVille(String ville) {
+        return ville == null ? null : TextNormalizer.fold(ville);
     }
 }
\ No newline at end of file
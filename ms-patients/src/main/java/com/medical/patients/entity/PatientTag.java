@@ -0,0 +1,37 @@
+package com.medical.patients.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// ========== ÉTIQUETTE CLINIQUE ==========
+// Une allergie ou maladie chronique normalisée (ex. "penicilline", "diabete"),
+// indexée pour les requêtes de cohorte.
+@Entity
+@Table(name = "patient_tags",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_patient_tags",
+                columnNames = {"patient_id", "type", "code"}),
+        indexes = @Index(name = "idx_patient_tags_lookup", columnList = "type, code, patient_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TagType type;
+
+    @Column(nullable = false, length = 100)
+    private String code;
+}
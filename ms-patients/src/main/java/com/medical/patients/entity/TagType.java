@@ -0,0 +1,7 @@
+package com.medical.patients.entity;
+
+// Type d'étiquette clinique extraite des champs libres du patient
+public enum TagType {
+    ALLERGIE,
+    MALADIE_CHRONIQUE
+}
@@ -1,12 +1,17 @@
 package com.medical.patients.repository;
 
 import com.medical.patients.entity.DossierMedical;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface DossierRepository extends JpaRepository<DossierMedical, Long> {
@@ -14,6 +19,9 @@ public interface DossierRepository extends JpaRepository<DossierMedical, Long> {
     // Tous les dossiers d'un patient
     List<DossierMedical> findByPatientId(Long patientId);
 
+    // Page suivante des dossiers d'un patient par curseur sur l'ID (keyset)
+    List<DossierMedical> findByPatientIdAndIdGreaterThanOrderByIdAsc(Long patientId, Long id, Pageable pageable);
+
     // Dossiers d'un patient par type de consultation
     List<DossierMedical> findByPatientIdAndTypeConsultation(Long patientId, String typeConsultation);
 
@@ -38,6 +46,15 @@ public interface DossierRepository extends JpaRepository<DossierMedical, Long> {
     // Dossiers par type de consultation
     List<DossierMedical> findByTypeConsultationIgnoreCase(String typeConsultation);
 
+    // Parcours en flux pour l'export (lecture seule). Integer.MIN_VALUE : le pilote MySQL lit
+    // les lignes une à une au lieu de charger tout le résultat en mémoire avant la première
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM DossierMedical d JOIN FETCH d.patient ORDER BY d.id")
+    Stream<DossierMedical> streamAll();
+
     // Compte les dossiers d'un patient
     long countByPatientId(Long patientId);
 }
\ No newline at end of file
@@ -1,17 +1,48 @@
 package com.medical.patients.repository;
 
 import com.medical.patients.entity.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 // ========== PATIENT REPOSITORY ==========
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
 
+    // Page suivante par curseur sur l'ID (keyset)
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Parcours en flux pour l'export (lecture seule). Integer.MIN_VALUE : le pilote MySQL lit
+    // les lignes une à une au lieu de charger tout le résultat en mémoire avant la première
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Patient p ORDER BY p.id")
+    Stream<Patient> streamAll();
+
+    // Noms seuls, page par page, pour l'index de recherche
+    @Query("SELECT p.id AS id, p.nom AS nom, p.prenom AS prenom FROM Patient p WHERE p.id > :after ORDER BY p.id")
+    List<PatientNameView> findNamesByIdGreaterThan(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.nom AS nom, p.prenom AS prenom FROM Patient p WHERE p.id = :id")
+    Optional<PatientNameView> findNameById(@Param("id") Long id);
+
+    // IDs existants parmi ceux demandés (vérification groupée par les autres services)
+    @Query("SELECT p.id FROM Patient p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
     // Chercher un patient par numéro de sécurité sociale
     Optional<Patient> findByNumeroSecu(String numeroSecu);
 
@@ -30,11 +61,46 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     // Chercher des patients nés après une date
     List<Patient> findByDateNaissanceAfter(LocalDate date);
 
-    // Requête personnalisée : patients avec allergies
-    @Query("SELECT p FROM Patient p WHERE p.allergies IS NOT NULL AND p.allergies != ''")
-    List<Patient> findPatientsAvecAllergies();
+    // Cohortes cliniques via les indicateurs indexés (keyset)
+    List<Patient> findByHasAllergiesTrueAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Patient> findByHasMaladiesChroniquesTrueAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Patients dont les indicateurs ou la ville normalisée n'ont pas encore été calculés
+    @Query("SELECT p FROM Patient p WHERE p.hasAllergies IS NULL " +
+            "OR (p.ville IS NOT NULL AND p.villeNormalisee IS NULL) ORDER BY p.id")
+    List<Patient> findNeedingDerivedFields(Pageable pageable);
+
+    // Mise à jour en masse : ni @PreUpdate ni dateModification ; les patients modifiés entre-temps
+    // (indicateurs déjà recalculés) sont laissés tels quels
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Patient p SET p.hasAllergies = :hasAllergies, " +
+            "p.hasMaladiesChroniques = :hasMaladiesChroniques, p.villeNormalisee = :villeNormalisee " +
+            "WHERE p.id IN :ids AND (p.hasAllergies IS NULL OR (p.ville IS NOT NULL AND p.villeNormalisee IS NULL))")
+    int fillDerivedFields(
+            @Param("ids") Collection<Long> ids,
+            @Param("hasAllergies") boolean hasAllergies,
+            @Param("hasMaladiesChroniques") boolean hasMaladiesChroniques,
+            @Param("villeNormalisee") String villeNormalisee
+    );
+
+    // Cohorte par étiquettes normalisées (ex. allergie "penicilline", maladie "diabete") et ville normalisée
+    @Query("SELECT p FROM Patient p WHERE p.id > :after " +
+            "AND (:allergie IS NULL OR p.id IN (SELECT t.patientId FROM PatientTag t " +
+            "WHERE t.type = com.medical.patients.entity.TagType.ALLERGIE AND t.code = :allergie)) " +
+            "AND (:maladie IS NULL OR p.id IN (SELECT t.patientId FROM PatientTag t " +
+            "WHERE t.type = com.medical.patients.entity.TagType.MALADIE_CHRONIQUE AND t.code = :maladie)) " +
+            "AND (:ville IS NULL OR p.villeNormalisee = :ville) " +
+            "ORDER BY p.id")
+    List<Patient> findCohorte(@Param("allergie") String allergie,
+                              @Param("maladie") String maladie,
+                              @Param("ville") String ville,
+                              @Param("after") Long after,
+                              Pageable pageable);
 
-    // Requête personnalisée : patients avec maladies chroniques
-    @Query("SELECT p FROM Patient p WHERE p.maladiesChroniques IS NOT NULL AND p.maladiesChroniques != ''")
-    List<Patient> findPatientsAvecMaladiesChroniques();
+    interface PatientNameView {
+        Long getId();
+        String getNom();
+        String getPrenom();
+    }
 }
@@ -0,0 +1,17 @@
+package com.medical.patients.repository;
+
+import com.medical.patients.entity.PatientTag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PatientTagRepository extends JpaRepository<PatientTag, Long> {
+
+    // Supprime toutes les étiquettes d'un patient (avant recalcul ou suppression)
+    @Modifying
+    @Query("DELETE FROM PatientTag t WHERE t.patientId = :patientId")
+    void deleteByPatientId(@Param("patientId") Long patientId);
+}
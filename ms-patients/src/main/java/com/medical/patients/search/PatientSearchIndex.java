@@ -0,0 +1,334 @@
+package com.medical.patients.search;
+
+import com.medical.patients.repository.PatientRepository;
+import com.medical.patients.util.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// ========== INDEX DE RECHERCHE PAR NOM ==========
+// Index en mémoire sur nom/prénom normalisés (sans accents) :
+//  - tokens triés pour la recherche exacte et par préfixe,
+//  - trigrammes pour la recherche approchée (fautes de frappe).
+// Le nombre d'IDs examinés est borné (par résultat demandé), y compris pour un préfixe très courant :
+// la latence ne dépend donc pas de la taille de la table.
+// Listes d'IDs en long[] triés, remplacés à chaque écriture (copy-on-write) : 8 octets par entrée
+// au lieu d'un Long et d'un nœud de Set, lecture sans verrou. Écritures rares (création, modification).
+// Mis à jour après commit par PatientService, et via le bus d'invalidation pour les autres réplicas.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PatientSearchIndex {
+
+    private static final int WARM_UP_PAGE = 5000;
+    private static final int CANDIDATES_PER_RESULT = 20;
+    private static final int MAX_SCANNED_PER_RESULT = 500;
+    private static final int MAX_TRIGRAM_POSTINGS = 5000;
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private static final double EXACT_SCORE = 3.0;
+    private static final double PREFIX_SCORE = 2.0;
+
+    private static final char TOKEN_SEPARATOR = ' ';
+
+    private final PatientRepository patientRepository;
+
+    // Tokens d'un patient, joints par un espace (absent des tokens normalisés)
+    private final Map<Long, String> tokensById = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, long[]> idsByToken = new ConcurrentSkipListMap<>();
+    private final Map<String, long[]> idsByTrigram = new ConcurrentHashMap<>();
+
+    // Chargement groupé : listes construites puis triées une fois, sans copie par patient
+    @PostConstruct
+    public synchronized void warmUp() {
+        Map<String, LongList> tokenPostings = new HashMap<>();
+        Map<String, LongList> trigramPostings = new HashMap<>();
+        long after = 0;
+        List<PatientRepository.PatientNameView> page;
+        do {
+            page = patientRepository.findNamesByIdGreaterThan(after, PageRequest.ofSize(WARM_UP_PAGE));
+            for (PatientRepository.PatientNameView patient : page) {
+                after = patient.getId();
+                List<String> tokens = tokens(patient.getNom(), patient.getPrenom());
+                if (tokens.isEmpty()) {
+                    continue;
+                }
+                tokensById.put(patient.getId(), String.join(String.valueOf(TOKEN_SEPARATOR), tokens));
+                for (String token : tokens) {
+                    tokenPostings.computeIfAbsent(token, t -> new LongList()).add(patient.getId());
+                }
+                for (String trigram : trigrams(tokens)) {
+                    trigramPostings.computeIfAbsent(trigram, t -> new LongList()).add(patient.getId());
+                }
+            }
+        } while (page.size() == WARM_UP_PAGE);
+        tokenPostings.forEach((token, ids) -> idsByToken.put(token, ids.toSortedDistinctArray()));
+        trigramPostings.forEach((trigram, ids) -> idsByTrigram.put(trigram, ids.toSortedDistinctArray()));
+        log.info("Index de recherche patients chargé : {} patients, {} tokens",
+                tokensById.size(), idsByToken.size());
+    }
+
+    public void indexAfterCommit(Long id, String nom, String prenom) {
+        AfterCommit.run(() -> index(id, nom, prenom));
+    }
+
+    public void removeAfterCommit(Long id) {
+        AfterCommit.run(() -> remove(id));
+    }
+
+    // Relit un patient modifié sur une autre instance
+    public void reload(Long id) {
+        patientRepository.findNameById(id).ifPresentOrElse(
+                patient -> index(id, patient.getNom(), patient.getPrenom()),
+                () -> remove(id));
+    }
+
+    public synchronized void index(Long id, String nom, String prenom) {
+        remove(id);
+        List<String> tokens = tokens(nom, prenom);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        tokensById.put(id, String.join(String.valueOf(TOKEN_SEPARATOR), tokens));
+        for (String token : new HashSet<>(tokens)) {
+            idsByToken.compute(token, (t, ids) -> with(ids, id));
+        }
+        for (String trigram : trigrams(tokens)) {
+            idsByTrigram.compute(trigram, (t, ids) -> with(ids, id));
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        String tokens = tokensById.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        List<String> removed = split(tokens);
+        for (String token : new HashSet<>(removed)) {
+            idsByToken.computeIfPresent(token, (t, ids) -> without(ids, id));
+        }
+        for (String trigram : trigrams(removed)) {
+            idsByTrigram.computeIfPresent(trigram, (t, ids) -> without(ids, id));
+        }
+    }
+
+    // IDs des patients les plus pertinents : exact > préfixe > approché, au plus "limit"
+    public List<Long> search(String query, int limit) {
+        List<String> queryTokens = TextNormalizer.tokens(query);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String term = queryTokens.get(0);
+        // Les autres mots de la requête (ex. prénom) doivent préfixer un token du patient :
+        // vérifié dès la collecte, pour que la limite ne porte que sur de vrais résultats
+        List<String> otherTerms = queryTokens.subList(1, queryTokens.size());
+        Candidates candidates = new Candidates(limit * CANDIDATES_PER_RESULT, limit * MAX_SCANNED_PER_RESULT);
+
+        long[] exact = idsByToken.get(term);
+        if (exact != null) {
+            for (long id : exact) {
+                if (!candidates.offer(id, EXACT_SCORE, otherTerms)) {
+                    break;
+                }
+            }
+        }
+
+        prefixes:
+        for (Map.Entry<String, long[]> entry :
+                idsByToken.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+            // Les préfixes proches du terme saisi passent devant
+            double score = PREFIX_SCORE + (double) term.length() / entry.getKey().length() / 2;
+            for (long id : entry.getValue()) {
+                if (!candidates.offer(id, score, otherTerms)) {
+                    break prefixes;
+                }
+            }
+        }
+
+        Map<Long, Double> scores = candidates.scores;
+        if (scores.size() < limit && term.length() >= 3) {
+            fuzzyMatches(term, otherTerms, candidates.max)
+                    .forEach((id, similarity) -> scores.merge(id, similarity, Math::max));
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Map<Long, Double> fuzzyMatches(String term, List<String> otherTerms, int maxCandidates) {
+        Set<String> queryTrigrams = trigrams(term);
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            long[] ids = idsByTrigram.get(trigram);
+            if (ids == null || ids.length > MAX_TRIGRAM_POSTINGS) {
+                continue; // trigramme trop fréquent : peu discriminant et coûteux
+            }
+            for (long id : ids) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+
+        Map<Long, Double> similarities = new HashMap<>();
+        shared.entrySet().stream()
+                .filter(entry -> matchesAll(entry.getKey(), otherTerms))
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
+                .limit(maxCandidates)
+                .forEach(entry -> {
+                    double similarity = bestSimilarity(entry.getKey(), queryTrigrams);
+                    if (similarity >= MIN_SIMILARITY) {
+                        similarities.put(entry.getKey(), similarity);
+                    }
+                });
+        return similarities;
+    }
+
+    // Similarité de Jaccard sur les trigrammes, avec le token le plus proche du patient
+    private double bestSimilarity(Long id, Set<String> queryTrigrams) {
+        double best = 0;
+        for (String token : tokensOf(id)) {
+            Set<String> tokenTrigrams = trigrams(token);
+            long common = tokenTrigrams.stream().filter(queryTrigrams::contains).count();
+            double similarity = (double) common / (queryTrigrams.size() + tokenTrigrams.size() - common);
+            best = Math.max(best, similarity);
+        }
+        return best;
+    }
+
+    private boolean matchesAll(Long id, List<String> terms) {
+        List<String> tokens = tokensOf(id);
+        return terms.stream().allMatch(term -> tokens.stream().anyMatch(token -> token.startsWith(term)));
+    }
+
+    // Candidats retenus (au plus "max") et IDs examinés (au plus "maxScanned"), quelle que soit
+    // la taille des listes parcourues : un préfixe d'une lettre ne parcourt pas toute la table
+    private final class Candidates {
+
+        private final Map<Long, Double> scores = new HashMap<>();
+        private final int max;
+        private final int maxScanned;
+        private int scanned;
+
+        Candidates(int max, int maxScanned) {
+            this.max = max;
+            this.maxScanned = maxScanned;
+        }
+
+        // false quand l'une des bornes est atteinte : la collecte s'arrête
+        boolean offer(Long id, double score, List<String> otherTerms) {
+            if (scores.size() >= max || scanned >= maxScanned) {
+                return false;
+            }
+            scanned++;
+            if (otherTerms.isEmpty() || matchesAll(id, otherTerms)) {
+                scores.merge(id, score, Math::max);
+            }
+            return true;
+        }
+    }
+
+    private List<String> tokensOf(Long id) {
+        String tokens = tokensById.get(id);
+        return tokens == null ? List.of() : split(tokens);
+    }
+
+    private static List<String> tokens(String nom, String prenom) {
+        List<String> tokens = new ArrayList<>(TextNormalizer.tokens(nom));
+        tokens.addAll(TextNormalizer.tokens(prenom));
+        return tokens;
+    }
+
+    private static List<String> split(String tokens) {
+        List<String> split = new ArrayList<>(2);
+        int start = 0;
+        for (int i = tokens.indexOf(TOKEN_SEPARATOR); i >= 0; i = tokens.indexOf(TOKEN_SEPARATOR, start)) {
+            split.add(tokens.substring(start, i));
+            start = i + 1;
+        }
+        split.add(tokens.substring(start));
+        return split;
+    }
+
+    private static Set<String> trigrams(List<String> tokens) {
+        Set<String> trigrams = new HashSet<>();
+        for (String token : tokens) {
+            trigrams.addAll(trigrams(token));
+        }
+        return trigrams;
+    }
+
+    private static Set<String> trigrams(String token) {
+        String padded = "  " + token + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // Copie triée augmentée de id (inchangée s'il y figure déjà)
+    private static long[] with(long[] ids, long id) {
+        if (ids == null) {
+            return new long[]{id};
+        }
+        int i = Arrays.binarySearch(ids, id);
+        if (i >= 0) {
+            return ids;
+        }
+        int insertAt = -i - 1;
+        long[] updated = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+        return updated;
+    }
+
+    // Copie triée privée de id ; null quand la liste devient vide (entrée supprimée)
+    private static long[] without(long[] ids, long id) {
+        int i = Arrays.binarySearch(ids, id);
+        if (i < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, i);
+        System.arraycopy(ids, i + 1, updated, i, ids.length - i - 1);
+        return updated;
+    }
+
+    // Liste extensible de long, pour le chargement groupé
+    private static final class LongList {
+
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedDistinctArray() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.medical.patients.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+// Calcule au démarrage les indicateurs, la ville normalisée et les étiquettes des patients existants.
+// Toutes les instances le lancent (déploiement progressif) : un conflit sur uk_patient_tags signifie
+// qu'une autre instance a traité la même page, elle est simplement relue. Jamais bloquant au démarrage.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClinicalTagBackfill {
+
+    private static final int MAX_CONFLICTS = 10;
+
+    private final ClinicalTagService clinicalTagService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long total = 0;
+        int conflicts = 0;
+        while (true) {
+            try {
+                int processed = clinicalTagService.backfillPage();
+                if (processed == 0) {
+                    break;
+                }
+                total += processed;
+            } catch (DataIntegrityViolationException e) {
+                if (++conflicts > MAX_CONFLICTS) {
+                    log.warn("Calcul des étiquettes cliniques abandonné après {} conflits, reprise au prochain démarrage",
+                            conflicts);
+                    return;
+                }
+                log.debug("Page d'étiquettes déjà traitée par une autre instance, nouvelle lecture");
+            } catch (Exception e) {
+                log.error("Calcul des étiquettes cliniques interrompu : {}", e.getMessage(), e);
+                return;
+            }
+        }
+        if (total > 0) {
+            log.info("Étiquettes cliniques calculées pour {} patients existants", total);
+        }
+    }
+}
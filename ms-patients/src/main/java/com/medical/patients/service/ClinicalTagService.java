@@ -0,0 +1,108 @@
+package com.medical.patients.service;
+
+import com.medical.patients.entity.Patient;
+import com.medical.patients.entity.PatientTag;
+import com.medical.patients.entity.TagType;
+import com.medical.patients.repository.PatientRepository;
+import com.medical.patients.repository.PatientTagRepository;
+import com.medical.patients.search.TextNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// ========== ÉTIQUETTES CLINIQUES ==========
+// Découpe les champs libres allergies / maladies chroniques en étiquettes normalisées
+// ("Pénicilline, Arachides" -> penicilline, arachides) stockées dans patient_tags.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class ClinicalTagService {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[,;/\\n]+");
+    private static final int MAX_CODE_LENGTH = 100;
+    private static final int BACKFILL_PAGE = 500;
+
+    private final PatientTagRepository patientTagRepository;
+    private final PatientRepository patientRepository;
+
+    // Recalcule les étiquettes d'un patient après création ou mise à jour
+    public void syncTags(Patient patient) {
+        patientTagRepository.deleteByPatientId(patient.getId());
+        List<PatientTag> tags = new ArrayList<>();
+        for (String code : codes(patient.getAllergies())) {
+            tags.add(tag(patient.getId(), TagType.ALLERGIE, code));
+        }
+        for (String code : codes(patient.getMaladiesChroniques())) {
+            tags.add(tag(patient.getId(), TagType.MALADIE_CHRONIQUE, code));
+        }
+        patientTagRepository.saveAll(tags);
+    }
+
+    public void deleteTags(Long patientId) {
+        patientTagRepository.deleteByPatientId(patientId);
+    }
+
+    // Traite une page de patients antérieurs aux indicateurs ; renvoie le nombre traité.
+    // Une page = une transaction : en cas de conflit avec une autre instance, seule la page est annulée.
+    // Les entités ne sont pas modifiées (sinon @PreUpdate daterait dateModification du déploiement) :
+    // un UPDATE en masse par combinaison de valeurs, les villes se répétant d'un patient à l'autre
+    public int backfillPage() {
+        List<Patient> patients = patientRepository.findNeedingDerivedFields(PageRequest.ofSize(BACKFILL_PAGE));
+        Map<DerivedFields, List<Long>> idsByFields = new HashMap<>();
+        for (Patient patient : patients) {
+            idsByFields.computeIfAbsent(DerivedFields.of(patient), fields -> new ArrayList<>()).add(patient.getId());
+            syncTags(patient);
+        }
+        idsByFields.forEach((fields, ids) -> patientRepository.fillDerivedFields(
+                ids, fields.hasAllergies(), fields.hasMaladiesChroniques(), fields.villeNormalisee()));
+        patientTagRepository.flush();
+        return patients.size();
+    }
+
+    public static String normalizeCode(String text) {
+        String code = TextNormalizer.fold(text);
+        return code.length() > MAX_CODE_LENGTH ? code.substring(0, MAX_CODE_LENGTH) : code;
+    }
+
+    private static Set<String> codes(String text) {
+        Set<String> codes = new LinkedHashSet<>();
+        if (text == null) {
+            return codes;
+        }
+        for (String part : SEPARATORS.split(text)) {
+            String code = normalizeCode(part);
+            if (!code.isEmpty()) {
+                codes.add(code);
+            }
+        }
+        return codes;
+    }
+
+    private record DerivedFields(boolean hasAllergies, boolean hasMaladiesChroniques, String villeNormalisee) {
+
+        static DerivedFields of(Patient patient) {
+            return new DerivedFields(
+                    Patient.isFilled(patient.getAllergies()),
+                    Patient.isFilled(patient.getMaladiesChroniques()),
+                    Patient.normalizeVille(patient.getVille()));
+        }
+    }
+
+    private static PatientTag tag(Long patientId, TagType type, String code) {
+        return PatientTag.builder()
+                .patientId(patientId)
+                .type(type)
+                .code(code)
+                .build();
+    }
+}
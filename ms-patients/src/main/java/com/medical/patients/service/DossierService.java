@@ -1,13 +1,16 @@
 package com.medical.patients.service;
 
 
+import com.medical.patients.dto.CursorPage;
 import com.medical.patients.dto.DossierDTO;
 import com.medical.patients.entity.Patient;
 import com.medical.patients.entity.DossierMedical;
 import com.medical.patients.repository.PatientRepository;
 import com.medical.patients.repository.DossierRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityNotFoundException;
@@ -19,6 +22,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed(value = "patients.service", histogram = true)
 public class DossierService {
 
     private final DossierRepository dossierRepository;
@@ -43,12 +47,15 @@ public class DossierService {
         return entityToDTO(dossier);
     }
 
-    // Tous les dossiers d'un patient
-    public List<DossierDTO> getDossiersByPatientId(Long patientId) {
-        log.info("Récupération des dossiers du patient : {}", patientId);
-        return dossierRepository.findByPatientId(patientId).stream()
+    // Dossiers d'un patient page par page (curseur sur l'ID)
+    public CursorPage<DossierDTO> getDossiersByPatientId(Long patientId, long after, int limit) {
+        int pageSize = PatientService.pageSize(limit);
+        log.info("Récupération des dossiers du patient : {} après l'ID {}", patientId, after);
+        List<DossierDTO> dossiers = dossierRepository
+                .findByPatientIdAndIdGreaterThanOrderByIdAsc(patientId, after, PageRequest.ofSize(pageSize)).stream()
                 .map(this::entityToDTO)
                 .collect(Collectors.toList());
+        return CursorPage.of(dossiers, pageSize, DossierDTO::getId);
     }
 
     // Derniers N dossiers d'un patient (pour la config personnalisée)
@@ -86,7 +93,7 @@ public class DossierService {
         dossierRepository.deleteById(id);
     }
 
-    private DossierDTO entityToDTO(DossierMedical dossier) {
+    DossierDTO entityToDTO(DossierMedical dossier) {
         return DossierDTO.builder()
                 .id(dossier.getId())
                 .patientId(dossier.getPatient().getId())
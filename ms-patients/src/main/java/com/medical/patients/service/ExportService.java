@@ -0,0 +1,75 @@
+package com.medical.patients.service;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.patients.entity.DossierMedical;
+import com.medical.patients.entity.Patient;
+import com.medical.patients.repository.DossierRepository;
+import com.medical.patients.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// ========== EXPORT NDJSON ==========
+// Une ligne JSON par entité, écrite au fil de la lecture : les requêtes streamAll demandent au pilote
+// MySQL un flux ligne à ligne (fetch size Integer.MIN_VALUE), sinon il chargerait tout le résultat.
+// La connexion reste occupée par ce flux jusqu'à la fin : aucune autre requête pendant l'export.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    private static final int CLEAR_EVERY = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PatientRepository patientRepository;
+    private final DossierRepository dossierRepository;
+    private final PatientService patientService;
+    private final DossierService dossierService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportPatients(OutputStream out) throws IOException {
+        try (Stream<Patient> patients = patientRepository.streamAll()) {
+            long count = writeNdjson(out, patients, patientService::entityToDTO);
+            log.info("Export NDJSON : {} patients", count);
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportDossiers(OutputStream out) throws IOException {
+        try (Stream<DossierMedical> dossiers = dossierRepository.streamAll()) {
+            long count = writeNdjson(out, dossiers, dossierService::entityToDTO);
+            log.info("Export NDJSON : {} dossiers", count);
+            return count;
+        }
+    }
+
+    private <E> long writeNdjson(OutputStream out, Stream<E> rows, Function<E, ?> toDTO) throws IOException {
+        ObjectWriter writer = objectMapper.writer();
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        long count = 0;
+
+        Iterator<E> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            buffered.write(writer.writeValueAsBytes(toDTO.apply(iterator.next())));
+            buffered.write('\n');
+            // Vider le contexte de persistance pour garder une mémoire constante
+            if (++count % CLEAR_EVERY == 0) {
+                entityManager.clear();
+            }
+        }
+        buffered.flush();
+        return count;
+    }
+}
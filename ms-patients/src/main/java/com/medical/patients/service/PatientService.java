@@ -1,18 +1,28 @@
 package com.medical.patients.service;
 
+import com.medical.patients.cache.PatientNearCache;
+import com.medical.patients.dto.CursorPage;
 import com.medical.patients.dto.PatientDTO;
 import com.medical.patients.dto.DossierDTO;
 import com.medical.patients.entity.Patient;
 import com.medical.patients.entity.DossierMedical;
 import com.medical.patients.repository.PatientRepository;
 import com.medical.patients.repository.DossierRepository;
+import com.medical.patients.search.PatientSearchIndex;
+import com.medical.patients.search.TextNormalizer;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityNotFoundException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 // ========== PATIENT SERVICE ==========
@@ -20,64 +30,110 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed(value = "patients.service", histogram = true)
 public class PatientService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final PatientRepository patientRepository;
+    private final PatientNearCache nearCache;
+    private final PatientSearchIndex searchIndex;
+    private final ClinicalTagService clinicalTagService;
 
     // Créer un nouveau patient
     public PatientDTO createPatient(PatientDTO patientDTO) {
         log.info("Création d'un nouveau patient : {}", patientDTO.getNom());
         Patient patient = dtoToEntity(patientDTO);
         Patient saved = patientRepository.save(patient);
+        clinicalTagService.syncTags(saved);
+        searchIndex.indexAfterCommit(saved.getId(), saved.getNom(), saved.getPrenom());
+        // Notifie les autres réplicas (index de recherche)
+        nearCache.invalidateAfterCommit(saved.getId());
         return entityToDTO(saved);
     }
 
-    // Récupérer un patient par ID
+    // Récupérer un patient par ID (near-cache, sans transaction sur un hit)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public PatientDTO getPatientById(Long id) {
         log.info("Récupération du patient avec l'ID : {}", id);
-        Patient patient = patientRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Patient introuvable : " + id));
-        return entityToDTO(patient);
+        return nearCache.getById(id, patientId -> patientRepository.findById(patientId)
+                .map(this::entityToDTO)
+                .orElseThrow(() -> new EntityNotFoundException("Patient introuvable : " + patientId)));
     }
 
-    // Récupérer tous les patients
-    public List<PatientDTO> getAllPatients() {
-        log.info("Récupération de tous les patients");
-        return patientRepository.findAll().stream()
+    // Récupérer les patients page par page (curseur sur l'ID)
+    public CursorPage<PatientDTO> getAllPatients(long after, int limit) {
+        int pageSize = pageSize(limit);
+        log.info("Récupération des patients après l'ID {} (limite {})", after, pageSize);
+        List<PatientDTO> patients = patientRepository
+                .findByIdGreaterThanOrderByIdAsc(after, PageRequest.ofSize(pageSize)).stream()
                 .map(this::entityToDTO)
                 .collect(Collectors.toList());
+        return CursorPage.of(patients, pageSize, PatientDTO::getId);
     }
 
-    // Chercher par numéro de sécurité sociale
+    // Chercher par numéro de sécurité sociale (near-cache)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public PatientDTO getPatientByNumeroSecu(String numeroSecu) {
         log.info("Recherche patient par numéro sécu : {}", numeroSecu);
-        Patient patient = patientRepository.findByNumeroSecu(numeroSecu)
-                .orElseThrow(() -> new EntityNotFoundException("Patient introuvable"));
-        return entityToDTO(patient);
+        return nearCache.getByNumeroSecu(numeroSecu, secu -> patientRepository.findByNumeroSecu(secu)
+                .map(this::entityToDTO)
+                .orElseThrow(() -> new EntityNotFoundException("Patient introuvable")));
     }
 
-    // Chercher par nom
-    public List<PatientDTO> searchByNom(String nom) {
+    // Parmi les IDs demandés, ceux qui correspondent à un patient
+    @Transactional(readOnly = true)
+    public List<Long> getExistingIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return patientRepository.findExistingIds(ids);
+    }
+
+    // Chercher par nom/prénom via l'index en mémoire (préfixe, approché, sans accents)
+    @Transactional(readOnly = true)
+    public List<PatientDTO> searchByNom(String nom, int limit) {
         log.info("Recherche patients par nom : {}", nom);
-        return patientRepository.findByNomContainingIgnoreCase(nom).stream()
+        List<Long> ids = searchIndex.search(nom, Math.min(Math.max(limit, 1), 100));
+        Map<Long, Patient> patients = patientRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        // Conserver l'ordre de pertinence de l'index
+        return ids.stream()
+                .map(patients::get)
+                .filter(Objects::nonNull)
                 .map(this::entityToDTO)
                 .collect(Collectors.toList());
     }
 
-    // Patients avec allergies
-    public List<PatientDTO> getPatientsAvecAllergies() {
-        log.info("Récupération des patients avec allergies");
-        return patientRepository.findPatientsAvecAllergies().stream()
-                .map(this::entityToDTO)
-                .collect(Collectors.toList());
+    // Patients avec allergies (indicateur indexé, page par page)
+    @Transactional(readOnly = true)
+    public CursorPage<PatientDTO> getPatientsAvecAllergies(long after, int limit) {
+        int pageSize = pageSize(limit);
+        log.info("Récupération des patients avec allergies après l'ID {}", after);
+        return toPage(patientRepository.findByHasAllergiesTrueAndIdGreaterThanOrderByIdAsc(
+                after, PageRequest.ofSize(pageSize)), pageSize);
     }
 
-    // Patients avec maladies chroniques
-    public List<PatientDTO> getPatientsAvecMaladiesChroniques() {
-        log.info("Récupération des patients avec maladies chroniques");
-        return patientRepository.findPatientsAvecMaladiesChroniques().stream()
-                .map(this::entityToDTO)
-                .collect(Collectors.toList());
+    // Patients avec maladies chroniques (indicateur indexé, page par page)
+    @Transactional(readOnly = true)
+    public CursorPage<PatientDTO> getPatientsAvecMaladiesChroniques(long after, int limit) {
+        int pageSize = pageSize(limit);
+        log.info("Récupération des patients avec maladies chroniques après l'ID {}", after);
+        return toPage(patientRepository.findByHasMaladiesChroniquesTrueAndIdGreaterThanOrderByIdAsc(
+                after, PageRequest.ofSize(pageSize)), pageSize);
+    }
+
+    // Cohorte clinique : allergie et/ou maladie chronique, éventuellement par ville
+    @Transactional(readOnly = true)
+    public CursorPage<PatientDTO> getCohorte(String allergie, String maladie, String ville, long after, int limit) {
+        int pageSize = pageSize(limit);
+        log.info("Cohorte clinique : allergie={}, maladie={}, ville={}", allergie, maladie, ville);
+        return toPage(patientRepository.findCohorte(
+                blankToNull(allergie == null ? null : ClinicalTagService.normalizeCode(allergie)),
+                blankToNull(maladie == null ? null : ClinicalTagService.normalizeCode(maladie)),
+                blankToNull(ville == null ? null : TextNormalizer.fold(ville)),
+                after,
+                PageRequest.ofSize(pageSize)), pageSize);
     }
 
     // Mettre à jour un patient
@@ -97,6 +153,9 @@ public class PatientService {
         patient.setMaladiesChroniques(patientDTO.getMaladiesChroniques());
 
         Patient updated = patientRepository.save(patient);
+        clinicalTagService.syncTags(updated);
+        searchIndex.indexAfterCommit(id, updated.getNom(), updated.getPrenom());
+        nearCache.invalidateAfterCommit(id);
         return entityToDTO(updated);
     }
 
@@ -106,10 +165,28 @@ public class PatientService {
         if (!patientRepository.existsById(id)) {
             throw new EntityNotFoundException("Patient introuvable : " + id);
         }
+        clinicalTagService.deleteTags(id);
         patientRepository.deleteById(id);
+        searchIndex.removeAfterCommit(id);
+        nearCache.invalidateAfterCommit(id);
+    }
+
+    private CursorPage<PatientDTO> toPage(List<Patient> patients, int pageSize) {
+        List<PatientDTO> items = patients.stream()
+                .map(this::entityToDTO)
+                .collect(Collectors.toList());
+        return CursorPage.of(items, pageSize, PatientDTO::getId);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
     }
 
-    private PatientDTO entityToDTO(Patient patient) {
+    PatientDTO entityToDTO(Patient patient) {
         return PatientDTO.builder()
                 .id(patient.getId())
                 .nom(patient.getNom())
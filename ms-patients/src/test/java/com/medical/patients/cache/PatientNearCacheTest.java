@@ -0,0 +1,79 @@
+package com.medical.patients.cache;
+
+import com.medical.patients.dto.PatientDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Deux instances ms-patients simulées en mémoire, reliées par un bus local (sans broker)
+class PatientNearCacheTest {
+
+    private final Map<Long, String> database = new ConcurrentHashMap<>();
+    private final AtomicInteger databaseReads = new AtomicInteger();
+
+    private PatientNearCache instanceA;
+    private PatientNearCache instanceB;
+
+    @BeforeEach
+    void setUp() {
+        LoopbackBus bus = new LoopbackBus();
+        instanceA = new PatientNearCache(bus, 1000, Duration.ofMinutes(5));
+        instanceB = new PatientNearCache(bus, 1000, Duration.ofMinutes(5));
+        bus.peers.addAll(List.of(instanceA, instanceB));
+        database.put(1L, "Dupont");
+    }
+
+    @Test
+    void servesRepeatedReadsFromCache() {
+        instanceA.getById(1L, this::load);
+        instanceA.getById(1L, this::load);
+        instanceA.getByNumeroSecu("185057800608436", secu -> load(1L));
+        instanceA.getByNumeroSecu("185057800608436", secu -> load(1L));
+
+        assertThat(databaseReads).hasValue(2);
+    }
+
+    @Test
+    void updateOnOneInstanceInvalidatesTheOther() {
+        assertThat(instanceA.getById(1L, this::load).getNom()).isEqualTo("Dupont");
+        assertThat(instanceB.getById(1L, this::load).getNom()).isEqualTo("Dupont");
+
+        database.put(1L, "Durand");
+        instanceA.invalidate(1L);
+
+        assertThat(instanceA.getById(1L, this::load).getNom()).isEqualTo("Durand");
+        assertThat(instanceB.getById(1L, this::load).getNom()).isEqualTo("Durand");
+    }
+
+    @Test
+    void invalidationAlsoAppliesToLookupsByNumeroSecu() {
+        instanceB.getByNumeroSecu("185057800608436", secu -> load(1L));
+
+        database.put(1L, "Durand");
+        instanceA.invalidate(1L);
+
+        assertThat(instanceB.getByNumeroSecu("185057800608436", secu -> load(1L)).getNom())
+                .isEqualTo("Durand");
+    }
+
+    private PatientDTO load(Long id) {
+        databaseReads.incrementAndGet();
+        return PatientDTO.builder().id(id).nom(database.get(id)).build();
+    }
+
+    private static class LoopbackBus implements InvalidationBus {
+        private final List<PatientNearCache> peers = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(Long patientId) {
+            peers.forEach(peer -> peer.evictLocal(patientId));
+        }
+    }
+}
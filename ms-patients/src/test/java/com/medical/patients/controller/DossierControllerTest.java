@@ -0,0 +1,80 @@
+package com.medical.patients.controller;
+
+import com.medical.patients.dto.CursorPage;
+import com.medical.patients.dto.DossierDTO;
+import com.medical.patients.service.DossierService;
+import com.medical.patients.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = DossierController.class, properties = "spring.cloud.config.enabled=false")
+class DossierControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DossierService dossierService;
+
+    @MockBean
+    private ExportService exportService;
+
+    @Test
+    void exportWritesNdjson() throws Exception {
+        when(exportService.exportDossiers(any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":3,\"patientId\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult started = mockMvc.perform(get("/api/dossiers/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":3,\"patientId\":1}\n"));
+    }
+
+    @Test
+    void patientDossiersArePagedByIdCursor() throws Exception {
+        when(dossierService.getDossiersByPatientId(1L, 0, 2))
+                .thenReturn(CursorPage.of(List.of(dossier(3L), dossier(4L)), 2, DossierDTO::getId));
+        when(dossierService.getDossiersByPatientId(1L, 4, 2))
+                .thenReturn(CursorPage.of(List.of(dossier(9L)), 2, DossierDTO::getId));
+
+        mockMvc.perform(get("/api/dossiers/patient/{patientId}", 1).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[*].id").value(contains(3, 4)))
+                .andExpect(jsonPath("$.data.nextCursor").value(4));
+
+        mockMvc.perform(get("/api/dossiers/patient/{patientId}", 1).param("after", "4").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[*].id").value(contains(9)))
+                .andExpect(jsonPath("$.data.nextCursor").value(nullValue()));
+    }
+
+    private static DossierDTO dossier(Long id) {
+        return DossierDTO.builder().id(id).patientId(1L).typeConsultation("Consultation").build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.medical.patients.controller;
+
+import com.medical.patients.dto.CursorPage;
+import com.medical.patients.dto.PatientDTO;
+import com.medical.patients.service.ExportService;
+import com.medical.patients.service.PatientService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// ========== EXPORT NDJSON ET PAGINATION PAR CURSEUR ==========
+@WebMvcTest(controllers = PatientController.class, properties = "spring.cloud.config.enabled=false")
+class PatientControllerTest {
+
+    private static final String NDJSON = "{\"id\":1}\n{\"id\":2}\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PatientService patientService;
+
+    @MockBean
+    private ExportService exportService;
+
+    @Test
+    void exportWritesNdjson() throws Exception {
+        when(exportService.exportPatients(any())).thenAnswer(invocation -> write(invocation.getArgument(0)));
+
+        MvcResult started = mockMvc.perform(get("/api/patients/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(NDJSON));
+    }
+
+    @Test
+    void exportCanBeGzipped() throws Exception {
+        when(exportService.exportPatients(any())).thenAnswer(invocation -> write(invocation.getArgument(0)));
+
+        MvcResult started = mockMvc.perform(get("/api/patients/export").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(NDJSON);
+        }
+    }
+
+    @Test
+    void listingReturnsNextCursorWhenThePageIsFull() throws Exception {
+        when(patientService.getAllPatients(10, 2))
+                .thenReturn(CursorPage.of(List.of(patient(11L), patient(12L)), 2, PatientDTO::getId));
+
+        mockMvc.perform(get("/api/patients").param("after", "10").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[*].id").value(contains(11, 12)))
+                .andExpect(jsonPath("$.data.limit").value(2))
+                .andExpect(jsonPath("$.data.nextCursor").value(12));
+    }
+
+    @Test
+    void listingHasNoNextCursorOnTheLastPage() throws Exception {
+        when(patientService.getAllPatients(0, 50))
+                .thenReturn(CursorPage.of(List.of(patient(1L)), 50, PatientDTO::getId));
+
+        mockMvc.perform(get("/api/patients"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[*].id").value(contains(1)))
+                .andExpect(jsonPath("$.data.nextCursor").value(nullValue()));
+
+        verify(patientService).getAllPatients(0, 50);
+    }
+
+    @Test
+    void cohortRequiresAClinicalCriterion() throws Exception {
+        mockMvc.perform(get("/api/patients/cohort").param("ville", "Orléans"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void cohortForwardsTheCursor() throws Exception {
+        when(patientService.getCohorte("latex", null, "Orléans", 5, 1))
+                .thenReturn(CursorPage.of(List.of(patient(7L)), 1, PatientDTO::getId));
+
+        mockMvc.perform(get("/api/patients/cohort")
+                        .param("allergie", "latex").param("ville", "Orléans")
+                        .param("after", "5").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.nextCursor").value(7));
+    }
+
+    private static long write(OutputStream out) throws Exception {
+        out.write(NDJSON.getBytes(StandardCharsets.UTF_8));
+        return 2;
+    }
+
+    private static PatientDTO patient(Long id) {
+        return PatientDTO.builder().id(id).nom("Dupont").prenom("Jean").build();
+    }
+}
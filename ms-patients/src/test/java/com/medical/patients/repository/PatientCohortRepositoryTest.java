@@ -0,0 +1,123 @@
+package com.medical.patients.repository;
+
+import com.medical.patients.entity.Patient;
+import com.medical.patients.entity.PatientTag;
+import com.medical.patients.entity.TagType;
+import com.medical.patients.service.ClinicalTagService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// ========== ÉTIQUETTES ET COHORTES ==========
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+@Import(ClinicalTagService.class)
+class PatientCohortRepositoryTest {
+
+    private static final AtomicLong NUMEROS_SECU = new AtomicLong(180000000000000L);
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientTagRepository patientTagRepository;
+
+    @Autowired
+    private ClinicalTagService clinicalTagService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void syncTagsSplitsAndNormalizesFreeText() {
+        Patient patient = save("Dupont", "Orléans", "Pénicilline, Arachides; pénicilline", "Diabète / Asthme");
+
+        clinicalTagService.syncTags(patient);
+
+        assertThat(patientTagRepository.findAll())
+                .extracting(PatientTag::getType, PatientTag::getCode)
+                .containsExactlyInAnyOrder(
+                        tuple(TagType.ALLERGIE, "penicilline"),
+                        tuple(TagType.ALLERGIE, "arachides"),
+                        tuple(TagType.MALADIE_CHRONIQUE, "diabete"),
+                        tuple(TagType.MALADIE_CHRONIQUE, "asthme"));
+    }
+
+    @Test
+    void cohortCombinesTagAndNormalizedCity() {
+        Patient orleans = save("Dupont", "Orléans", null, "Diabète");
+        Patient paris = save("Martin", "Paris", null, "Diabète");
+        Patient asthme = save("Durand", "ORLEANS", null, "Asthme");
+        List.of(orleans, paris, asthme).forEach(clinicalTagService::syncTags);
+
+        assertThat(cohorte(null, "diabete", "orleans")).containsExactly(orleans.getId());
+        assertThat(cohorte(null, "diabete", null)).containsExactly(orleans.getId(), paris.getId());
+        assertThat(cohorte(null, "asthme", "orleans")).containsExactly(asthme.getId());
+        assertThat(cohorte("penicilline", "diabete", null)).isEmpty();
+    }
+
+    @Test
+    void backfillCompletesPatientsCreatedBeforeDerivedFields() {
+        Patient patient = save("Dupont", "Orléans", "Latex", null);
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Patient p SET p.hasAllergies = NULL, p.villeNormalisee = NULL")
+                .executeUpdate();
+        entityManager.clear();
+        LocalDateTime dateModification = patientRepository.findById(patient.getId()).orElseThrow()
+                .getDateModification();
+        entityManager.clear();
+
+        assertThat(clinicalTagService.backfillPage()).isEqualTo(1);
+        assertThat(clinicalTagService.backfillPage()).isZero();
+
+        Patient reloaded = patientRepository.findById(patient.getId()).orElseThrow();
+        assertThat(reloaded.getHasAllergies()).isTrue();
+        assertThat(reloaded.getVilleNormalisee()).isEqualTo("orleans");
+        // Calcul technique : la date de modification du patient reste celle de sa dernière vraie mise à jour
+        assertThat(reloaded.getDateModification()).isEqualTo(dateModification);
+        assertThat(cohorte("latex", null, "orleans")).containsExactly(patient.getId());
+    }
+
+    @Test
+    void keysetPagesFollowTheIdCursor() {
+        Patient first = save("Dupont", "Orléans", null, null);
+        Patient second = save("Martin", "Paris", null, null);
+        Patient third = save("Durand", "Lyon", null, null);
+        long before = first.getId() - 1;
+
+        assertThat(patientRepository.findByIdGreaterThanOrderByIdAsc(before, PageRequest.ofSize(2)))
+                .extracting(Patient::getId)
+                .containsExactly(first.getId(), second.getId());
+        assertThat(patientRepository.findByIdGreaterThanOrderByIdAsc(second.getId(), PageRequest.ofSize(2)))
+                .extracting(Patient::getId)
+                .containsExactly(third.getId());
+    }
+
+    private List<Long> cohorte(String allergie, String maladie, String ville) {
+        return patientRepository.findCohorte(allergie, maladie, ville, 0L, PageRequest.ofSize(50))
+                .stream()
+                .map(Patient::getId)
+                .toList();
+    }
+
+    private Patient save(String nom, String ville, String allergies, String maladies) {
+        return entityManager.persistAndFlush(Patient.builder()
+                .nom(nom)
+                .prenom("Jean")
+                .numeroSecu(String.valueOf(NUMEROS_SECU.incrementAndGet()))
+                .dateNaissance(LocalDate.of(1980, 1, 1))
+                .ville(ville)
+                .allergies(allergies)
+                .maladiesChroniques(maladies)
+                .build());
+    }
+}
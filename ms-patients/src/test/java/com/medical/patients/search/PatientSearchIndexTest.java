@@ -0,0 +1,167 @@
+package com.medical.patients.search;
+
+import com.medical.patients.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Index alimenté directement (sans base) : le dépôt n'est utilisé que par warmUp/reload
+class PatientSearchIndexTest {
+
+    private static final int PATIENTS = 100_000;
+    private static final String[] SYLLABES = {"ber", "nar", "du", "pon", "mar", "tin", "la", "fon", "gi", "rard",
+            "le", "roy", "mo", "reau", "si", "mon", "lau", "rent", "mi", "chel", "fa", "ure", "ro", "bert", "gar",
+            "nier", "che", "val", "bou", "lan"};
+    private static final String[] PRENOMS = {"Jean", "Marie", "Pierre", "Michel", "Nathalie", "Isabelle",
+            "Philippe", "Catherine", "Alain", "Sylvie", "Nicolas", "Sophie", "Christophe", "Sandrine", "Laurent",
+            "Valérie", "Hélène", "Éric", "Céline", "Julien", "Camille", "Léa", "Hugo", "Chloé", "Louis", "Emma",
+            "Lucas", "Manon", "Thomas", "Inès", "Jean-Pierre", "Marie-Claire"};
+
+    private PatientSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PatientSearchIndex(null);
+        index.index(1L, "Martin", "Jean");
+        index.index(2L, "Martinez", "Paul");
+        index.index(3L, "Dupré", "Hélène");
+        index.index(4L, "Dupont", "Marie");
+    }
+
+    // Avec moins de résultats que "limit", la recherche approchée complète la liste : on vérifie la tête
+    @Test
+    void exactMatchComesBeforePrefixMatch() {
+        assertThat(index.search("martin", 10)).startsWith(1L, 2L);
+        assertThat(index.search("martin", 2)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void findsByPrefix() {
+        assertThat(index.search("mart", 2)).containsExactly(1L, 2L);
+        assertThat(index.search("dup", 10)).containsExactlyInAnyOrder(3L, 4L);
+    }
+
+    @Test
+    void ignoresAccentsAndCase() {
+        assertThat(index.search("helene", 10)).containsExactly(3L);
+        assertThat(index.search("DUPRÉ", 10)).startsWith(3L);
+        assertThat(index.search("dupre", 1)).containsExactly(3L);
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertThat(index.search("dupomt", 10)).startsWith(4L);
+        assertThat(index.search("martinn", 10)).contains(1L);
+    }
+
+    @Test
+    void otherWordsMustPrefixAToken() {
+        assertThat(index.search("martin je", 10)).containsExactly(1L);
+        assertThat(index.search("martin pierre", 10)).isEmpty();
+    }
+
+    @Test
+    void multiWordQueryIsNotCutByTheCandidateLimit() {
+        // Bien plus de "Martin" que de candidats retenus pour limit = 5
+        for (long id = 100; id < 1100; id++) {
+            index.index(id, "Martin", "Prenom" + id);
+        }
+        index.index(5000L, "Martin", "Jeanne");
+
+        assertThat(index.search("martin jean", 5)).containsExactly(1L, 5000L);
+    }
+
+    @Test
+    void limitsTheNumberOfResults() {
+        for (long id = 100; id < 200; id++) {
+            index.index(id, "Bernard", "Luc");
+        }
+
+        assertThat(index.search("bernard", 3)).hasSize(3);
+        assertThat(index.search("b", 3)).hasSize(3);
+    }
+
+    @Test
+    void reindexingReplacesTheOldName() {
+        index.index(3L, "Durand", "Hélène");
+
+        assertThat(index.search("dupre", 10)).doesNotContain(3L);
+        assertThat(index.search("durand", 10)).containsExactly(3L);
+
+        index.remove(3L);
+        assertThat(index.search("durand", 10)).isEmpty();
+    }
+
+    // Empreinte mémoire à taille réaliste : l'ancien index (Set<Long> par token et trigramme,
+    // List<String> par patient) dépassait 800 octets par patient
+    @Test
+    void footprintStaysCompactAtRealisticSize() {
+        List<PatientRepository.PatientNameView> patients = patients();
+        PatientRepository patientRepository = mock(PatientRepository.class);
+        when(patientRepository.findNamesByIdGreaterThan(anyLong(), any())).thenAnswer(invocation -> {
+            int after = invocation.getArgument(0, Long.class).intValue();
+            int size = invocation.getArgument(1, Pageable.class).getPageSize();
+            return patients.subList(Math.min(after, PATIENTS), Math.min(after + size, PATIENTS));
+        });
+
+        long before = usedHeap();
+        PatientSearchIndex large = new PatientSearchIndex(patientRepository);
+        large.warmUp();
+        long bytesPerPatient = (usedHeap() - before) / PATIENTS;
+
+        assertThat(large.search(patients.get(0).getNom(), 5)).contains(1L);
+        assertThat(bytesPerPatient).isLessThan(400);
+    }
+
+    // Noms composés de 2 ou 3 syllabes (environ 27 000 noms distincts), prénoms courants
+    private static List<PatientRepository.PatientNameView> patients() {
+        Random random = new Random(42);
+        List<PatientRepository.PatientNameView> patients = new ArrayList<>(PATIENTS);
+        for (long id = 1; id <= PATIENTS; id++) {
+            StringBuilder nom = new StringBuilder();
+            int syllabes = 2 + random.nextInt(2);
+            for (int i = 0; i < syllabes; i++) {
+                nom.append(SYLLABES[random.nextInt(SYLLABES.length)]);
+            }
+            patients.add(new Name(id, nom.substring(0, 1).toUpperCase() + nom.substring(1),
+                    PRENOMS[random.nextInt(PRENOMS.length)]));
+        }
+        return patients;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private record Name(Long id, String nom, String prenom) implements PatientRepository.PatientNameView {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getNom() {
+            return nom;
+        }
+
+        @Override
+        public String getPrenom() {
+            return prenom;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.medical.patients.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextNormalizerTest {
+
+    @Test
+    void foldRemovesAccentsAndCase() {
+        assertThat(TextNormalizer.fold("Hélène")).isEqualTo("helene");
+        assertThat(TextNormalizer.fold("ÇA VA")).isEqualTo("ca va");
+        assertThat(TextNormalizer.fold("Saint-Étienne")).isEqualTo("saint etienne");
+    }
+
+    @Test
+    void foldReplacesPunctuationWithSingleSpaces() {
+        assertThat(TextNormalizer.fold("  O'Connor -- Zoë ")).isEqualTo("o connor zoe");
+    }
+
+    @Test
+    void foldHandlesNullAndBlank() {
+        assertThat(TextNormalizer.fold(null)).isEmpty();
+        assertThat(TextNormalizer.fold("  ")).isEmpty();
+    }
+
+    @Test
+    void tokensSplitsTheFoldedText() {
+        assertThat(TextNormalizer.tokens("Jean-Pierre Léger")).containsExactly("jean", "pierre", "leger");
+        assertThat(TextNormalizer.tokens("")).isEmpty();
+        assertThat(TextNormalizer.tokens(null)).isEmpty();
+    }
+}
@@ -0,0 +1,155 @@
+package com.medical.patients.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.patients.cache.PatientNearCache;
+import com.medical.patients.entity.DossierMedical;
+import com.medical.patients.entity.Patient;
+import com.medical.patients.repository.DossierRepository;
+import com.medical.patients.repository.PatientRepository;
+import com.medical.patients.search.PatientSearchIndex;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// ========== EXPORT NDJSON ==========
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+class ExportServiceTest {
+
+    private static final int PATIENTS = 1200;
+
+    // Fetch size demandés par Hibernate aux requêtes JDBC
+    private static final List<Integer> FETCH_SIZES = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DossierRepository dossierRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private EntityManager entityManager;
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class, delegatesTo(testEntityManager.getEntityManager()));
+        exportService = new ExportService(
+                patientRepository,
+                dossierRepository,
+                new PatientService(patientRepository, mock(PatientNearCache.class),
+                        mock(PatientSearchIndex.class), mock(ClinicalTagService.class)),
+                new DossierService(dossierRepository, patientRepository),
+                entityManager,
+                new ObjectMapper().findAndRegisterModules());
+        FETCH_SIZES.clear();
+    }
+
+    @Test
+    void patientsAreStreamedOneLinePerRowWithPeriodicClear() throws Exception {
+        for (int i = 0; i < PATIENTS; i++) {
+            testEntityManager.persist(patient(i));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportPatients(out);
+
+        assertThat(count).isEqualTo(PATIENTS);
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).hasSize(PATIENTS)
+                .allSatisfy(line -> assertThat(line).startsWith("{\"id\":"));
+        // Mode flux du pilote MySQL demandé à la requête
+        assertThat(FETCH_SIZES).containsExactly(Integer.MIN_VALUE);
+        // Contexte de persistance vidé tous les 500 patients
+        verify(entityManager, times(PATIENTS / 500)).clear();
+    }
+
+    @Test
+    void dossiersAreStreamedWithTheirPatientId() throws Exception {
+        Patient patient = testEntityManager.persist(patient(0));
+        testEntityManager.persist(DossierMedical.builder()
+                .patient(patient)
+                .typeConsultation("Cardiologie")
+                .dateConsultation(LocalDate.of(2024, 3, 1))
+                .build());
+        testEntityManager.flush();
+        testEntityManager.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exportService.exportDossiers(out)).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .contains("\"patientId\":" + patient.getId())
+                .endsWith("\n");
+        assertThat(FETCH_SIZES).containsExactly(Integer.MIN_VALUE);
+    }
+
+    private static Patient patient(int i) {
+        return Patient.builder()
+                .nom("Export" + i)
+                .prenom("Jean")
+                .numeroSecu(String.valueOf(190000000000000L + i))
+                .dateNaissance(LocalDate.of(1980, 1, 1))
+                .ville("Orléans")
+                .build();
+    }
+
+    // H2 refuse le fetch size négatif du mode flux MySQL : il est relevé puis ignoré
+    @TestConfiguration
+    static class FetchSizeRecording {
+
+        @Bean
+        static BeanPostProcessor recordFetchSize() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? recording(bean) : bean;
+                }
+            };
+        }
+
+        private static Object recording(Object target) {
+            return Proxy.newProxyInstance(target.getClass().getClassLoader(),
+                    ClassUtils.getAllInterfaces(target), (proxy, method, args) -> {
+                        if (method.getName().equals("setFetchSize")) {
+                            FETCH_SIZES.add((Integer) args[0]);
+                            if ((Integer) args[0] < 0) {
+                                return null;
+                            }
+                        }
+                        try {
+                            Object result = method.invoke(target, args);
+                            return result instanceof Connection || result instanceof Statement
+                                    ? recording(result) : result;
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}